@@ -0,0 +1,82 @@
+package com.arsansys.siva.config;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import com.arsansys.siva.model.entity.JwtEntity;
+import com.arsansys.siva.security.jwt.TokenDigest;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prepara la colección 'jwt' al arrancar.
+ * <p>
+ * Crea el índice TTL sobre la fecha de expiración y migra los documentos
+ * antiguos, que usaban el token completo como identificador, al nuevo formato
+ * indexado por el resumen del token. Los documentos ya caducados se borran
+ * sin migrar.
+ * <p>
+ * La migración recorre la colección entera, así que al terminar se anota en
+ * la colección 'locks' y los arranques siguientes no la repiten. Si varios
+ * nodos arrancan a la vez pueden migrar los mismos documentos; el resultado
+ * es el mismo.
+ */
+@Component
+@Slf4j
+public class JwtStoreMigration {
+
+    private static final String LOCK_COLLECTION = "locks";
+    private static final String MIGRATION_MARKER = "jwt.token-digest-migration";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Crea el índice TTL y, si no se ha hecho ya, migra los documentos antiguos.
+     */
+    @PostConstruct
+    public void migrate() {
+        mongoTemplate.indexOps(JwtEntity.class)
+                .createIndex(new Index().on("expirationDate", Sort.Direction.ASC).named("expirationDate").expire(0));
+
+        MongoCollection<Document> locks = mongoTemplate.getCollection(LOCK_COLLECTION);
+        if (locks.find(Filters.eq("_id", MIGRATION_MARKER)).first() != null) {
+            return;
+        }
+
+        // Los identificadores antiguos son tokens JWT, que siempre contienen '.'
+        MongoCollection<Document> collection = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(JwtEntity.class));
+
+        int migrated = 0;
+        int expired = 0;
+        for (Document document : collection.find(Filters.regex("_id", "\\."))) {
+            String token = document.getString("_id");
+            Date expirationDate = document.getDate("expirationDate");
+            if (expirationDate != null && expirationDate.after(new Date())) {
+                Document replacement = new Document(document);
+                replacement.put("_id", TokenDigest.sha256(token));
+                collection.replaceOne(Filters.eq("_id", replacement.get("_id")), replacement,
+                        new ReplaceOptions().upsert(true));
+                migrated++;
+            } else {
+                expired++;
+            }
+            collection.deleteOne(Filters.eq("_id", token));
+        }
+        locks.replaceOne(Filters.eq("_id", MIGRATION_MARKER),
+                new Document("_id", MIGRATION_MARKER).append("completedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+        log.info("Colección jwt migrada: {} tokens reindexados, {} caducados eliminados", migrated, expired);
+    }
+}
@@ -0,0 +1,68 @@
+package com.arsansys.siva.config;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import com.arsansys.siva.model.entity.Product;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Crea al arrancar los índices declarados en {@link Product}.
+ * <p>
+ * La creación automática de índices de Spring Data está desactivada por
+ * defecto, así que sin este paso las búsquedas por categoría y precio
+ * recorrerían la colección completa. Crear un índice que ya existe no hace
+ * nada; si un índice existe con otra definición se registra el error y la
+ * aplicación arranca igualmente.
+ */
+@Component
+@Slf4j
+public class ProductIndexInitializer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Crea los índices que falten y comprueba que todos existen.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(
+                mongoTemplate.getConverter().getMappingContext());
+
+        Set<String> expected = new HashSet<>();
+        for (IndexDefinition index : resolver.resolveIndexFor(Product.class)) {
+            String name = index.getIndexOptions().getString("name");
+            if (name != null) {
+                expected.add(name);
+            }
+            try {
+                indexOps.createIndex(index);
+            } catch (RuntimeException e) {
+                log.error("No se ha podido crear el índice {} de productos: {}", name, e.getMessage());
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (IndexInfo info : indexOps.getIndexInfo()) {
+            existing.add(info.getName());
+        }
+        expected.removeAll(existing);
+        if (expected.isEmpty()) {
+            log.info("Índices de productos verificados");
+        } else {
+            log.error("Faltan índices en la colección de productos: {}", expected);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.arsansys.siva.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import com.arsansys.siva.model.entity.RefreshTokenEntity;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Crea al arrancar los índices declarados en {@link RefreshTokenEntity}: el
+ * índice TTL sobre la fecha de expiración, que borra los refresh tokens
+ * caducados, y los índices por familia y por usuario que usan la revocación
+ * y el cierre de todas las sesiones.
+ */
+@Component
+@Slf4j
+public class RefreshTokenIndexInitializer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Crea los índices que falten.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(RefreshTokenEntity.class);
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(
+                mongoTemplate.getConverter().getMappingContext());
+        for (IndexDefinition index : resolver.resolveIndexFor(RefreshTokenEntity.class)) {
+            try {
+                indexOps.createIndex(index);
+            } catch (RuntimeException e) {
+                log.error("No se ha podido crear el índice {} de refresh tokens: {}",
+                        index.getIndexOptions().getString("name"), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.arsansys.siva.controller;
+
+import com.arsansys.siva.model.dto.HotProductDTO;
+import com.arsansys.siva.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/products")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminProductController {
+
+    // Límite de productos devueltos por el ranking de populares
+    private static final int MAX_HOT_LIMIT = 100;
+
+    private final ProductService productService;
+
+    @GetMapping("/hot")
+    public ResponseEntity<List<HotProductDTO>> getHotProducts(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.getHotProducts(Math.max(1, Math.min(limit, MAX_HOT_LIMIT))));
+    }
+}
@@ -0,0 +1,19 @@
+package com.arsansys.siva.controller;
+
+import com.arsansys.siva.security.jwt.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok(Map.of("keys", jwtKeyRing.getPublicJwks()));
+    }
+}
@@ -1,20 +1,36 @@
 package com.arsansys.siva.controller;
 
+import com.arsansys.siva.model.dto.CategoryFacetDTO;
+import com.arsansys.siva.model.dto.ProductBulkRequest;
+import com.arsansys.siva.model.dto.ProductBulkResponse;
 import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductLookupRequest;
+import com.arsansys.siva.model.dto.ProductLookupResponse;
+import com.arsansys.siva.model.dto.ProductPage;
+import com.arsansys.siva.model.dto.ProductPatchRequest;
 import com.arsansys.siva.model.dto.ProductRequest;
+import com.arsansys.siva.model.dto.ProductSearchRequest;
+import com.arsansys.siva.model.dto.ProductSuggestionDTO;
+import com.arsansys.siva.model.dto.StockLevelDTO;
+import com.arsansys.siva.model.dto.StockRequest;
 import com.arsansys.siva.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
 public class ProductController {
     
+    // Límite de sugerencias devueltas por el autocompletado
+    private static final int MAX_SUGGESTIONS = 50;
+    
     private final ProductService productService;
     
     @PostMapping
@@ -29,12 +45,80 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
     
-    @GetMapping
+    @PostMapping("/bulk")
+    public ResponseEntity<ProductBulkResponse> bulkWrite(@Valid @RequestBody ProductBulkRequest request) {
+        ProductBulkResponse response = productService.bulkWrite(request.getOperations());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductLookupResponse> lookupProducts(@Valid @RequestBody ProductLookupRequest request) {
+        ProductLookupResponse response = productService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<List<StockLevelDTO>> reserveStock(@Valid @RequestBody StockRequest request) {
+        List<StockLevelDTO> levels = productService.reserveStock(request.getItems());
+        return ResponseEntity.ok(levels);
+    }
+    
+    // Devolver stock no está ligado a una reserva previa: solo administradores
+    @PostMapping("/stock/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<StockLevelDTO>> releaseStock(@Valid @RequestBody StockRequest request) {
+        List<StockLevelDTO> levels = productService.releaseStock(request.getItems());
+        return ResponseEntity.ok(levels);
+    }
+    
+    // Sin parámetros de paginación se mantiene la respuesta original, un array
+    // con todos los productos, para los clientes que aún no paginan
+    @GetMapping(params = { "!cursor", "!limit", "!fields" })
     public ResponseEntity<List<ProductDTO>> getAllProducts() {
         List<ProductDTO> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping
+    public ResponseEntity<ProductPage> getProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Set<String> fields) {
+        ProductPage page = productService.getProducts(cursor, limit, fields);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<ProductPage> searchProducts(@Valid ProductSearchRequest request) {
+        ProductPage page = productService.searchProducts(request);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/search/text")
+    public ResponseEntity<ProductPage> textSearchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        ProductPage page = productService.textSearchProducts(q, category, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductSuggestionDTO>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestionDTO> suggestions = productService.autocomplete(q,
+                Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<List<CategoryFacetDTO>> getCategoryFacets() {
+        List<CategoryFacetDTO> facets = productService.getCategoryFacets();
+        return ResponseEntity.ok(facets);
+    }
+    
     @GetMapping("/category/{category}")
     public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable String category) {
         List<ProductDTO> products = productService.getProductsByCategory(category);
@@ -49,6 +133,14 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
     
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductDTO> patchProduct(
+            @PathVariable String id,
+            @Valid @RequestBody ProductPatchRequest request) {
+        ProductDTO product = productService.patchProduct(id, request);
+        return ResponseEntity.ok(product);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable String id) {
         productService.deleteProduct(id);
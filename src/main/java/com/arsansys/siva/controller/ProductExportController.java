@@ -0,0 +1,61 @@
+package com.arsansys.siva.controller;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación del catálogo completo en formato NDJSON (un producto JSON por
+ * línea).
+ * <p>
+ * Los productos se leen de un cursor de MongoDB y se escriben directamente en
+ * la respuesta a medida que llegan: el siguiente lote solo se pide cuando el
+ * cliente ha consumido el anterior, así que la memoria usada no depende del
+ * tamaño del catálogo.
+ */
+@RestController
+@RequestMapping("/api/v1/products/export")
+@RequiredArgsConstructor
+public class ProductExportController {
+
+    // Productos escritos entre cada flush de la respuesta
+    private static final int FLUSH_EVERY = 500;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    public void exportProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class);
+        OutputStream out = response.getOutputStream();
+        try (Stream<ProductDTO> products = productService.streamProducts(category, updatedSince)) {
+            Iterator<ProductDTO> iterator = products.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+}
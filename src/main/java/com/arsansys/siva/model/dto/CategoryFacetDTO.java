@@ -0,0 +1,21 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryFacetDTO {
+    private String category;
+    private Long count;
+    private Long inStock;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double avgPrice;
+    private List<PriceBucketDTO> histogram;
+}
@@ -0,0 +1,15 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotProductDTO {
+    private String id;
+    private Integer hits;
+}
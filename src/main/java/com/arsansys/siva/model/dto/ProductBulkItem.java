@@ -0,0 +1,23 @@
+package com.arsansys.siva.model.dto;
+
+import com.arsansys.siva.model.enums.EBulkOperation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Operación de una escritura por lotes. {@code id} es obligatorio para
+ * UPDATE y DELETE, y {@code product} para CREATE y UPDATE. Cada operación se
+ * valida por separado, de modo que una operación incorrecta no invalida el
+ * resto del lote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBulkItem {
+    private EBulkOperation operation;
+    private String id;
+    private ProductRequest product;
+}
@@ -0,0 +1,21 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBulkRequest {
+
+    @NotEmpty(message = "La lista de operaciones es requerida")
+    @Size(max = 5000, message = "Como máximo se pueden enviar 5000 operaciones")
+    private List<@NotNull(message = "Las operaciones no pueden ser nulas") ProductBulkItem> operations;
+}
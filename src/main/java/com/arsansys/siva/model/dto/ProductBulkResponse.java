@@ -0,0 +1,17 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBulkResponse {
+    private Integer succeeded;
+    private Integer failed;
+    private List<ProductBulkResult> results;
+}
@@ -0,0 +1,22 @@
+package com.arsansys.siva.model.dto;
+
+import com.arsansys.siva.model.enums.EBulkOperation;
+import com.arsansys.siva.model.enums.EBulkStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductBulkResult {
+    private Integer index;
+    private EBulkOperation operation;
+    private String id;
+    private EBulkStatus status;
+    private String message;
+}
@@ -1,5 +1,6 @@
 package com.arsansys.siva.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,7 +10,8 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductDTO {
     private String id;
     private String name;
@@ -19,4 +21,5 @@ public class ProductDTO {
     private String category;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Float score;
 }
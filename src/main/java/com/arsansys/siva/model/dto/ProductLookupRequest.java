@@ -0,0 +1,21 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductLookupRequest {
+
+    @NotEmpty(message = "La lista de ids es requerida")
+    @Size(max = 200, message = "Como máximo se pueden pedir 200 productos")
+    private List<@NotBlank(message = "Los ids no pueden estar vacíos") String> ids;
+}
@@ -0,0 +1,38 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+
+/**
+ * Modificación parcial de un producto: solo se cambian los campos no nulos.
+ * Si se indica {@code expectedUpdatedAt}, la modificación solo se aplica si el
+ * producto no ha cambiado desde esa fecha.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPatchRequest {
+
+    @Pattern(regexp = ".*\\S.*", message = "El nombre no puede estar vacío")
+    private String name;
+
+    private String description;
+
+    @Positive(message = "El precio debe ser positivo")
+    private Double price;
+
+    @PositiveOrZero(message = "El stock no puede ser negativo")
+    private Integer stock;
+
+    @Pattern(regexp = ".*\\S.*", message = "La categoría no puede estar vacía")
+    private String category;
+
+    private LocalDateTime expectedUpdatedAt;
+}
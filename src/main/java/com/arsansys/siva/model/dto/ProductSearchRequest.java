@@ -0,0 +1,39 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Filtros, orden y página de la búsqueda de productos. Todos los campos son
+ * opcionales.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchRequest {
+
+    private String category;
+
+    @PositiveOrZero(message = "El precio mínimo no puede ser negativo")
+    private Double minPrice;
+
+    @PositiveOrZero(message = "El precio máximo no puede ser negativo")
+    private Double maxPrice;
+
+    private Boolean inStock;
+
+    @Pattern(regexp = "price|createdAt|name", message = "El orden debe ser price, createdAt o name")
+    private String sort;
+
+    @Pattern(regexp = "asc|desc", message = "La dirección debe ser asc o desc")
+    private String direction;
+
+    private String cursor;
+
+    private Integer limit;
+}
@@ -0,0 +1,23 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockItemRequest {
+
+    @NotBlank(message = "El id del producto es requerido")
+    private String productId;
+
+    @NotNull(message = "La cantidad es requerida")
+    @Positive(message = "La cantidad debe ser positiva")
+    private Integer quantity;
+}
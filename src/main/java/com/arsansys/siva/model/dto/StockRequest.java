@@ -0,0 +1,21 @@
+package com.arsansys.siva.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockRequest {
+
+    @NotEmpty(message = "La lista de productos es requerida")
+    @Size(max = 100, message = "Como máximo se pueden reservar 100 productos")
+    private List<@Valid StockItemRequest> items;
+}
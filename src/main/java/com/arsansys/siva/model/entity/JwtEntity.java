@@ -3,6 +3,7 @@ package com.arsansys.siva.model.entity;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -12,7 +13,10 @@ import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
 /**
- * Entidad que representa un token JWT almacenado en la base de datos.
+ * Entidad que representa un token JWT revocado almacenado en la base de datos.
+ * <p>
+ * Se identifica por el resumen SHA-256 del token, no por el token completo, y
+ * MongoDB la elimina sola al llegar a su fecha de expiración.
  */
 @Data
 @AllArgsConstructor
@@ -22,10 +26,10 @@ import lombok.NonNull;
 public class JwtEntity {
 
     /**
-     * Token JWT.
+     * Resumen SHA-256 del token JWT (Base64 URL, 43 caracteres).
      */
     @Id
-    private String token;
+    private String id;
 
     /**
      * Nombre de usuario asociado al token.
@@ -35,8 +39,10 @@ public class JwtEntity {
 
     /**
      * Fecha de expiración del token.
+     * Índice TTL: el documento se borra al llegar a esta fecha.
      */
     @NonNull
+    @Indexed(expireAfterSeconds = 0)
     private Date expirationDate;
 
     /**
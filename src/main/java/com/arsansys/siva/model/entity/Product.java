@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -16,6 +19,9 @@ import java.time.LocalDateTime;
  * 
  * Anotaciones:
  * - @Document: Mapea esta clase a la colección 'products' en MongoDB
+ * - @CompoundIndexes: Índices para las búsquedas por categoría, rango de precio
+ *   y orden, terminados en _id para paginar por cursor
+ * - @TextIndexed: Índice de texto sobre nombre (peso 5) y descripción (peso 1)
  * - @Data: Genera automáticamente getters, setters, equals, hashCode y toString
  * - @Builder: Proporciona un patrón builder para crear instancias
  * - @NoArgsConstructor: Genera un constructor sin argumentos
@@ -25,7 +31,15 @@ import java.time.LocalDateTime;
  * @version 1.0
  * @since 2026
  */
-@Document(collection = "products")
+@Document(collection = "products", language = "spanish")
+@CompoundIndexes({
+        @CompoundIndex(name = "category_price", def = "{'category': 1, 'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_createdAt", def = "{'category': 1, 'createdAt': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_name", def = "{'category': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "price", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "createdAt", def = "{'createdAt': 1, '_id': 1}"),
+        @CompoundIndex(name = "name", def = "{'name': 1, '_id': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,12 +57,14 @@ public class Product {
      * Nombre del producto.
      * Campo obligatorio que describe el nombre o título del producto.
      */
+    @TextIndexed(weight = 5)
     private String name;
 
     /**
      * Descripción detallada del producto.
      * Contiene información adicional sobre las características del producto.
      */
+    @TextIndexed
     private String description;
 
     /**
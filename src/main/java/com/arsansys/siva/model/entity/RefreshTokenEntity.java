@@ -0,0 +1,59 @@
+package com.arsansys.siva.model.entity;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que representa un refresh token emitido.
+ * <p>
+ * Cada refresh token solo se puede usar una vez: al usarlo se marca como usado
+ * y se emite otro de la misma familia. Si un token ya usado vuelve a
+ * presentarse se revoca la familia completa.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "refresh_token")
+public class RefreshTokenEntity {
+
+    /**
+     * Resumen SHA-256 del refresh token.
+     */
+    @Id
+    private String id;
+
+    /**
+     * Identificador de la familia de tokens surgida de un mismo inicio de sesión.
+     */
+    @Indexed
+    private String familyId;
+
+    /**
+     * Nombre de usuario asociado al token.
+     */
+    @Indexed
+    private String username;
+
+    /**
+     * Fecha de expiración del token.
+     * Índice TTL: el documento se borra al llegar a esta fecha.
+     */
+    @Indexed(expireAfterSeconds = 0)
+    private Date expirationDate;
+
+    /**
+     * Indica si el token ya se ha usado para obtener otro.
+     */
+    @Builder.Default
+    private Boolean used = false;
+
+}
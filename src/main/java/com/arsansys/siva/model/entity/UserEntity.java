@@ -55,6 +55,13 @@ public class UserEntity {
     @Builder.Default
     private Boolean active = true;
 
+    /**
+     * Versión de los tokens emitidos para el usuario.
+     * Al incrementarla quedan revocados todos los tokens anteriores.
+     */
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     /**
      * Rol asignado al usuario.
      */
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Respuesta de autenticación JWT.
- * Contiene el token generado y el identificador del usuario.
+ * Contiene el token de acceso, el refresh token y el identificador del usuario.
  */
 @Data
 @AllArgsConstructor
@@ -19,6 +19,10 @@ public class JwtResponse {
      * Token JWT generado.
      */
     String token;
+    /**
+     * Refresh token para obtener nuevos tokens de acceso.
+     */
+    String refreshToken;
     /**
      * Identificador del usuario autenticado.
      */
@@ -0,0 +1,24 @@
+package com.arsansys.siva.model.entity.jwt;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Solicitud de renovación o cierre de sesión con un refresh token.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RefreshTokenRequest {
+
+    /**
+     * Refresh token emitido al iniciar sesión.
+     */
+    @NotBlank
+    String refreshToken;
+
+}
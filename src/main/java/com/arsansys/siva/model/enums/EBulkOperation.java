@@ -0,0 +1,11 @@
+package com.arsansys.siva.model.enums;
+
+/**
+ * Enum que representa las operaciones admitidas en una escritura por lotes de
+ * productos.
+ */
+public enum EBulkOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,13 @@
+package com.arsansys.siva.model.enums;
+
+/**
+ * Enum que representa el resultado de cada operación de una escritura por
+ * lotes de productos.
+ */
+public enum EBulkStatus {
+    OK,
+    INVALID,
+    NOT_FOUND,
+    CONFLICT,
+    ERROR
+}
@@ -1,5 +1,8 @@
 package com.arsansys.siva.repository.mongo;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -21,11 +24,12 @@ public interface JwtRepository extends MongoRepository<JwtEntity, String> {
     JwtEntity findByUsername(String username);
 
     /**
-     * Busca un JWT por token.
+     * Busca los JWT marcados como no válidos que caducan después de la fecha
+     * indicada.
      * 
-     * @param token Token JWT
-     * @return JWT si existe
+     * @param date Fecha de referencia
+     * @return Lista de JWT revocados aún vigentes
      */
-    JwtEntity findByToken(String token);
+    List<JwtEntity> findByIsValidFalseAndExpirationDateAfter(Date date);
 
 }
@@ -0,0 +1,192 @@
+package com.arsansys.siva.repository.mongo;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.entity.Product;
+import com.arsansys.siva.model.enums.EBulkOperation;
+import org.springframework.data.domain.Sort;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Consultas sobre productos construidas con MongoTemplate.
+ */
+public interface ProductRepositoryCustom {
+
+    /*
+     * Los métodos de lectura devuelven ProductDTO: el documento se decodifica
+     * directamente en el DTO, leyendo solo sus campos, sin pasar por la
+     * entidad Product.
+     */
+
+    /**
+     * Escritura de un lote. En CREATE el producto debe llevar ya su id; en
+     * UPDATE se cambian sus campos editables y la fecha de actualización; en
+     * DELETE solo se usa el id. UPDATE y DELETE solo se aplican si el
+     * documento conserva la fecha de actualización leída.
+     *
+     * @param operation         Tipo de escritura
+     * @param product           Producto a escribir
+     * @param expectedUpdatedAt Fecha de actualización leída antes de escribir
+     */
+    record BulkWrite(EBulkOperation operation, Product product, LocalDateTime expectedUpdatedAt) {
+    }
+
+    /**
+     * Resultado de un lote de escrituras, por posición en la lista.
+     *
+     * @param errors    Mensaje de error de cada escritura fallida
+     * @param unmatched Escrituras UPDATE o DELETE que no encontraron el
+     *                  documento en el estado leído y no se aplicaron
+     */
+    record BulkWriteOutcome(Map<Integer, String> errors, Set<Integer> unmatched) {
+    }
+
+    /**
+     * Resultado de {@link #incrementStocks(Map)}.
+     *
+     * @param updated  Productos tras el cambio, en el orden de las líneas;
+     *                 vacío si la transacción se ha deshecho
+     * @param failedId Id del producto que no existe, no tiene stock suficiente
+     *                 o se desbordaría, o null si se han aplicado todas
+     */
+    record StockUpdate(List<Product> updated, String failedId) {
+    }
+
+    /**
+     * Búsqueda de productos paginada por cursor. Los filtros nulos no se
+     * aplican. La página siguiente empieza tras el par ({@code afterValue},
+     * {@code afterId}) del último producto de la anterior.
+     *
+     * @param category   Categoría
+     * @param minPrice   Precio mínimo, incluido
+     * @param maxPrice   Precio máximo, incluido
+     * @param inStock    Solo productos con stock mayor que cero
+     * @param sortField  Campo de orden: price, createdAt o name
+     * @param direction  Dirección del orden
+     * @param afterValue Valor del campo de orden del último producto devuelto
+     * @param afterId    Id del último producto devuelto, o null para la primera
+     *                   página
+     * @param limit      Número máximo de productos
+     */
+    record SearchQuery(String category, Double minPrice, Double maxPrice, boolean inStock, String sortField,
+            Sort.Direction direction, Object afterValue, String afterId, int limit) {
+    }
+
+    /**
+     * Obtiene una página de productos ordenada por _id, a partir del último id
+     * de la página anterior.
+     *
+     * @param afterId Último id devuelto, o null para la primera página
+     * @param limit   Número máximo de productos
+     * @param fields  Campos a leer, o vacío para leerlos todos
+     * @return Productos de la página, leídos directamente como DTO
+     */
+    List<ProductDTO> findPageAfter(String afterId, int limit, Collection<String> fields);
+
+    /**
+     * Recorre los productos con un cursor del servidor, sin cargarlos todos en
+     * memoria. El stream debe cerrarse para liberar el cursor.
+     *
+     * @param category     Categoría a filtrar, o null para todas
+     * @param updatedSince Fecha mínima de actualización, o null para no filtrar
+     * @return Stream de productos ordenado por _id, leídos directamente como DTO
+     */
+    Stream<ProductDTO> streamByCategoryAndUpdatedSince(String category, LocalDateTime updatedSince);
+
+    /**
+     * Elimina un producto y devuelve el documento borrado en una sola
+     * operación.
+     *
+     * @param id Id del producto
+     * @return Producto eliminado, o null si no existía
+     */
+    Product findAndRemoveById(String id);
+
+    /**
+     * Suma una cantidad al stock de varios productos en una única transacción:
+     * o se aplican todas las líneas o ninguna. Un stock nulo o ausente cuenta
+     * como cero. Una cantidad negativa solo se aplica si el stock actual es
+     * suficiente, y una positiva solo si el resultado cabe en un entero.
+     * <p>
+     * Las transacciones de MongoDB requieren un replica set o un clúster
+     * fragmentado.
+     *
+     * @param deltas Cantidad a sumar por id de producto (negativa para
+     *               reservar)
+     * @return Productos tras el cambio, o el id de la primera línea que no se
+     *         ha podido aplicar si la transacción se ha deshecho
+     */
+    StockUpdate incrementStocks(Map<String, Integer> deltas);
+
+    /**
+     * Actualiza solo los campos indicados de un producto con un único $set.
+     *
+     * @param id                Id del producto
+     * @param fields            Campos a cambiar y sus nuevos valores
+     * @param expectedUpdatedAt Fecha de actualización esperada, o null para no
+     *                          comprobarla
+     * @return Producto antes del cambio, o null si no existe o su fecha de
+     *         actualización no coincide
+     */
+    Product patch(String id, Map<String, Object> fields, LocalDateTime expectedUpdatedAt);
+
+    /**
+     * Ejecuta un lote de escrituras como una única operación bulk no ordenada:
+     * el fallo de una escritura no detiene las demás.
+     *
+     * @param writes Escrituras a ejecutar
+     * @return Escrituras fallidas y no aplicadas, indexadas por su posición en
+     *         la lista
+     */
+    BulkWriteOutcome bulkWrite(List<BulkWrite> writes);
+
+    /**
+     * Busca productos con una única consulta, ordenada por el campo indicado y
+     * por _id para que el orden sea estable.
+     *
+     * @param query Filtros, orden y posición de la página
+     * @return Productos de la página, leídos directamente como DTO
+     */
+    List<ProductDTO> search(SearchQuery query);
+
+    /**
+     * Busca productos por texto en nombre y descripción, ordenados por
+     * relevancia, y los lee directamente como {@link ProductDTO} con su
+     * puntuación.
+     *
+     * @param text     Palabras a buscar
+     * @param category Categoría a la que limitar la búsqueda, o null
+     * @param skip     Número de resultados a saltar
+     * @param limit    Número máximo de resultados
+     * @return Productos encontrados, de mayor a menor relevancia
+     */
+    List<ProductDTO> textSearch(String text, String category, int skip, int limit);
+
+    /**
+     * Obtiene un producto por id.
+     *
+     * @param id Id del producto
+     * @return Producto, o null si no existe
+     */
+    ProductDTO findDtoById(String id);
+
+    /**
+     * Obtiene varios productos por id con una sola consulta $in.
+     *
+     * @param ids Ids de los productos
+     * @return Productos encontrados, en cualquier orden
+     */
+    List<ProductDTO> findAllDtosById(Collection<String> ids);
+
+    /**
+     * Obtiene los productos de una categoría.
+     *
+     * @param category Categoría
+     * @return Productos de la categoría
+     */
+    List<ProductDTO> findDtosByCategory(String category);
+}
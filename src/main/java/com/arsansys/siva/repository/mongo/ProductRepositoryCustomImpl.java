@@ -0,0 +1,361 @@
+package com.arsansys.siva.repository.mongo;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.entity.Product;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de {@link ProductRepositoryCustom} con MongoTemplate.
+ */
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Intentos de la transacción de stock ante conflictos de escritura
+    private static final int STOCK_TRANSACTION_ATTEMPTS = 3;
+
+    // Documentos por lote que el cursor pide al servidor
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    // Campos de ProductDTO que se leen de cada documento
+    private static final String[] DTO_FIELDS = {
+            "name", "description", "price", "stock", "category", "createdAt", "updatedAt" };
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ProductDTO> findPageAfter(String afterId, int limit, Collection<String> fields) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        if (fields.isEmpty()) {
+            query.fields().include(DTO_FIELDS);
+        } else {
+            fields.forEach(field -> query.fields().include(field));
+        }
+        return findDtos(query);
+    }
+
+    @Override
+    public Stream<ProductDTO> streamByCategoryAndUpdatedSince(String category, LocalDateTime updatedSince) {
+        Query query = new Query();
+        if (category != null) {
+            query.addCriteria(Criteria.where("category").is(category));
+        }
+        if (updatedSince != null) {
+            query.addCriteria(Criteria.where("updatedAt").gte(updatedSince));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include(DTO_FIELDS);
+        return mongoTemplate.stream(query, ProductDTO.class, collectionName());
+    }
+
+    @Override
+    public Product findAndRemoveById(String id) {
+        return mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Product.class);
+    }
+
+    @Override
+    public StockUpdate incrementStocks(Map<String, Integer> deltas) {
+        // El gestor no se registra como bean para no desplazar al de JPA
+        TransactionTemplate transaction = new TransactionTemplate(
+                new MongoTransactionManager(mongoTemplate.getMongoDatabaseFactory()));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> {
+                    List<Product> updated = new ArrayList<>();
+                    deltas.forEach((id, delta) -> {
+                        Product product = incrementStock(id, delta);
+                        if (product == null) {
+                            throw new StockLineRejectedException(id);
+                        }
+                        updated.add(product);
+                    });
+                    return new StockUpdate(updated, null);
+                });
+            } catch (StockLineRejectedException e) {
+                return new StockUpdate(List.of(), e.productId);
+            } catch (DataAccessException e) {
+                // Conflicto de escritura con otra transacción sobre el mismo producto
+                if (attempt >= STOCK_TRANSACTION_ATTEMPTS || !isTransient(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Product incrementStock(String id, int delta) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (delta < 0) {
+            criteria = criteria.and("stock").gte(-delta);
+        } else {
+            criteria = criteria.orOperator(Criteria.where("stock").is(null),
+                    Criteria.where("stock").lte(Integer.MAX_VALUE - delta));
+        }
+        // $inc falla sobre un campo nulo: se suma con un pipeline que lo toma como 0
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("stock").toValue(ArithmeticOperators.valueOf(ConditionalOperators.ifNull("stock").then(0))
+                        .add(delta))
+                .set("updatedAt").toValue(LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Product patch(String id, Map<String, Object> fields, LocalDateTime expectedUpdatedAt) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedUpdatedAt != null) {
+            criteria = criteria.and("updatedAt").is(expectedUpdatedAt);
+        }
+        Update update = new Update();
+        fields.forEach(update::set);
+        return mongoTemplate.findAndModify(new Query(criteria), update, Product.class);
+    }
+
+    @Override
+    public BulkWriteOutcome bulkWrite(List<BulkWrite> writes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (BulkWrite write : writes) {
+            Product product = write.product();
+            Query current = new Query(Criteria.where("_id").is(product.getId())
+                    .and("updatedAt").is(write.expectedUpdatedAt()));
+            switch (write.operation()) {
+                case CREATE -> bulk.insert(product);
+                case UPDATE -> bulk.updateOne(current, new Update()
+                        .set("name", product.getName())
+                        .set("description", product.getDescription())
+                        .set("price", product.getPrice())
+                        .set("stock", product.getStock())
+                        .set("category", product.getCategory())
+                        .set("updatedAt", product.getUpdatedAt()));
+                case DELETE -> bulk.remove(current);
+            }
+        }
+        BulkWriteResult result;
+        Map<Integer, String> errors;
+        try {
+            result = bulk.execute();
+            errors = Map.of();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            errors = e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+        }
+        return new BulkWriteOutcome(errors, findUnmatched(writes, errors, result));
+    }
+
+    // El resultado de un bulk no ordenado solo trae totales. Si cuadran con las
+    // escrituras enviadas, se aplicaron todas; si no, se consulta el estado de
+    // los documentos para saber cuáles no encontraron su filtro.
+    private Set<Integer> findUnmatched(List<BulkWrite> writes, Map<Integer, String> errors,
+            BulkWriteResult result) {
+        Map<String, Integer> updates = new HashMap<>();
+        Map<String, Integer> deletes = new HashMap<>();
+        for (int i = 0; i < writes.size(); i++) {
+            if (errors.containsKey(i)) {
+                continue;
+            }
+            switch (writes.get(i).operation()) {
+                case UPDATE -> updates.put(writes.get(i).product().getId(), i);
+                case DELETE -> deletes.put(writes.get(i).product().getId(), i);
+                case CREATE -> {
+                }
+            }
+        }
+        Set<Integer> unmatched = new HashSet<>();
+        if (result.getMatchedCount() < updates.size()) {
+            // Una actualización aplicada deja la fecha de actualización nueva
+            Query query = new Query(Criteria.where("_id").in(updates.keySet()));
+            query.fields().include("updatedAt");
+            Map<String, LocalDateTime> stored = new HashMap<>();
+            mongoTemplate.find(query, Product.class)
+                    .forEach(product -> stored.put(product.getId(), product.getUpdatedAt()));
+            updates.forEach((id, index) -> {
+                if (!Objects.equals(stored.get(id), writes.get(index).product().getUpdatedAt())) {
+                    unmatched.add(index);
+                }
+            });
+        }
+        if (result.getDeletedCount() < deletes.size()) {
+            // Un borrado no aplicado deja el documento en la colección
+            Query query = new Query(Criteria.where("_id").in(deletes.keySet()));
+            query.fields().include("_id");
+            mongoTemplate.find(query, Product.class)
+                    .forEach(product -> unmatched.add(deletes.get(product.getId())));
+        }
+        return unmatched;
+    }
+
+    @Override
+    public List<ProductDTO> search(SearchQuery search) {
+        List<Criteria> filters = new ArrayList<>();
+        if (search.category() != null) {
+            filters.add(Criteria.where("category").is(search.category()));
+        }
+        if (search.minPrice() != null) {
+            filters.add(Criteria.where("price").gte(search.minPrice()));
+        }
+        if (search.maxPrice() != null) {
+            filters.add(Criteria.where("price").lte(search.maxPrice()));
+        }
+        if (search.inStock()) {
+            filters.add(Criteria.where("stock").gt(0));
+        }
+        if (search.afterId() != null) {
+            filters.add(keysetAfter(search.sortField(), search.direction().isAscending(),
+                    search.afterValue(), search.afterId()));
+        }
+
+        Query query = filters.isEmpty() ? new Query() : new Query(new Criteria().andOperator(filters));
+        query.with(Sort.by(search.direction(), search.sortField()).and(Sort.by(search.direction(), "_id")))
+                .limit(search.limit());
+        query.fields().include(DTO_FIELDS);
+        return findDtos(query);
+    }
+
+    // Keyset: (campo, _id) estrictamente posterior al último devuelto. MongoDB
+    // ordena los valores nulos o ausentes antes que cualquier otro, así que van
+    // al principio en orden ascendente y al final en descendente; $gt y $lt no
+    // los incluyen y se tratan aparte.
+    private Criteria keysetAfter(String field, boolean ascending, Object afterValue, String afterId) {
+        Criteria pastId = ascending ? Criteria.where("_id").gt(afterId) : Criteria.where("_id").lt(afterId);
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(afterValue), pastId);
+        if (afterValue == null) {
+            return ascending
+                    ? new Criteria().orOperator(sameValue, Criteria.where(field).ne(null))
+                    : sameValue;
+        }
+        Criteria pastValue = ascending ? Criteria.where(field).gt(afterValue) : Criteria.where(field).lt(afterValue);
+        return ascending
+                ? new Criteria().orOperator(pastValue, sameValue)
+                : new Criteria().orOperator(pastValue, sameValue, Criteria.where(field).is(null));
+    }
+
+    @Override
+    public List<ProductDTO> textSearch(String text, String category, int skip, int limit) {
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text)).sortByScore();
+        if (category != null) {
+            query.addCriteria(Criteria.where("category").is(category));
+        }
+        query.fields().include(DTO_FIELDS);
+        query.skip(skip).limit(limit);
+        return mongoTemplate.find(query, TextHit.class, collectionName()).stream()
+                .map(TextHit::toDto)
+                .toList();
+    }
+
+    @Override
+    public ProductDTO findDtoById(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include(DTO_FIELDS);
+        return mongoTemplate.findOne(query, ProductDTO.class, collectionName());
+    }
+
+    @Override
+    public List<ProductDTO> findAllDtosById(Collection<String> ids) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include(DTO_FIELDS);
+        return findDtos(query);
+    }
+
+    @Override
+    public List<ProductDTO> findDtosByCategory(String category) {
+        Query query = new Query(Criteria.where("category").is(category));
+        query.fields().include(DTO_FIELDS);
+        return findDtos(query);
+    }
+
+    // Decodifica los documentos directamente en ProductDTO, sin pasar por Product
+    private List<ProductDTO> findDtos(Query query) {
+        return mongoTemplate.find(query, ProductDTO.class, collectionName());
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(Product.class);
+    }
+
+    // Deshace la transacción de stock al fallar una línea
+    private static final class StockLineRejectedException extends RuntimeException {
+        private final String productId;
+
+        private StockLineRejectedException(String productId) {
+            super(null, null, false, false);
+            this.productId = productId;
+        }
+    }
+
+    // Resultado de una búsqueda de texto: la puntuación solo se puede leer con
+    // @TextScore, que no debe llegar al DTO de la API
+    @Data
+    @NoArgsConstructor
+    static class TextHit {
+        private String id;
+        private String name;
+        private String description;
+        private Double price;
+        private Integer stock;
+        private String category;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        @TextScore
+        private Float score;
+
+        ProductDTO toDto() {
+            return ProductDTO.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .price(price)
+                    .stock(stock)
+                    .category(category)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .score(score)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.arsansys.siva.repository.mongo;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.arsansys.siva.model.entity.RefreshTokenEntity;
+
+/**
+ * Repositorio para la entidad RefreshTokenEntity.
+ */
+@Repository
+public interface RefreshTokenRepository
+        extends MongoRepository<RefreshTokenEntity, String>, RefreshTokenRepositoryCustom {
+
+    /**
+     * Elimina todos los tokens de una familia.
+     * 
+     * @param familyId Identificador de la familia
+     */
+    void deleteByFamilyId(String familyId);
+
+    /**
+     * Elimina todos los tokens de un usuario.
+     * 
+     * @param username Nombre de usuario
+     */
+    void deleteByUsername(String username);
+
+}
@@ -0,0 +1,18 @@
+package com.arsansys.siva.repository.mongo;
+
+import com.arsansys.siva.model.entity.RefreshTokenEntity;
+
+/**
+ * Operaciones atómicas sobre refresh tokens.
+ */
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Marca un token como usado si aún no lo estaba.
+     *
+     * @param id Resumen del token
+     * @return Token antes de marcarlo, o null si no existe o ya estaba usado
+     */
+    RefreshTokenEntity markUsed(String id);
+
+}
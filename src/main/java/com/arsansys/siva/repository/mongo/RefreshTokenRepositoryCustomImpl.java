@@ -0,0 +1,26 @@
+package com.arsansys.siva.repository.mongo;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.arsansys.siva.model.entity.RefreshTokenEntity;
+
+/**
+ * Implementación de {@link RefreshTokenRepositoryCustom} con MongoTemplate.
+ */
+public class RefreshTokenRepositoryCustomImpl implements RefreshTokenRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public RefreshTokenEntity markUsed(String id) {
+        return mongoTemplate.findAndModify(query(where("_id").is(id).and("used").is(false)),
+                new Update().set("used", true), RefreshTokenEntity.class);
+    }
+
+}
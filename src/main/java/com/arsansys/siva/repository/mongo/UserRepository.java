@@ -13,7 +13,7 @@ import com.arsansys.siva.model.entity.UserEntity;
  * MongoDB.
  */
 @Repository
-public interface UserRepository extends MongoRepository<UserEntity, String> {
+public interface UserRepository extends MongoRepository<UserEntity, String>, UserRepositoryCustom {
 
     /**
      * Busca un usuario por su nombre de usuario.
@@ -0,0 +1,53 @@
+package com.arsansys.siva.repository.mongo;
+
+import com.arsansys.siva.model.entity.UserEntity;
+
+/**
+ * Operaciones sobre usuarios que actualizan o leen campos concretos sin cargar
+ * ni reescribir el documento completo.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Incrementa la versión de tokens del usuario.
+     *
+     * @param username Nombre de usuario
+     * @return Nueva versión de tokens, o null si el usuario no existe
+     */
+    Integer incrementTokenVersion(String username);
+
+    /**
+     * Obtiene la versión de tokens del usuario.
+     *
+     * @param username Nombre de usuario
+     * @return Versión de tokens, o null si el usuario no existe
+     */
+    Integer findTokenVersionByUsername(String username);
+
+    /**
+     * Actualiza únicamente el token de Google del usuario.
+     *
+     * @param id          ID del usuario
+     * @param googleToken Nuevo token de Google
+     */
+    void updateGoogleToken(String id, String googleToken);
+
+    /**
+     * Actualiza únicamente la contraseña cifrada del usuario.
+     *
+     * @param id       ID del usuario
+     * @param password Contraseña cifrada
+     */
+    void updatePassword(String id, String password);
+
+    /**
+     * Actualiza los campos editables del usuario sin tocar la versión de tokens,
+     * que solo se modifica con {@link #incrementTokenVersion(String)}.
+     *
+     * @param user Usuario con los nuevos valores (se localiza por su ID)
+     * @return Documento anterior a la actualización, o null si el usuario no
+     *         existe
+     */
+    UserEntity updateUserFields(UserEntity user);
+
+}
@@ -0,0 +1,69 @@
+package com.arsansys.siva.repository.mongo;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.arsansys.siva.model.entity.UserEntity;
+
+/**
+ * Implementación de {@link UserRepositoryCustom} con MongoTemplate.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Integer incrementTokenVersion(String username) {
+        Query byUsername = query(where("username").is(username));
+        byUsername.fields().include("tokenVersion");
+        UserEntity updated = mongoTemplate.findAndModify(byUsername, new Update().inc("tokenVersion", 1),
+                options().returnNew(true), UserEntity.class);
+        return updated != null ? updated.getTokenVersion() : null;
+    }
+
+    @Override
+    public Integer findTokenVersionByUsername(String username) {
+        Query byUsername = query(where("username").is(username));
+        byUsername.fields().include("tokenVersion");
+        UserEntity user = mongoTemplate.findOne(byUsername, UserEntity.class);
+        if (user == null) {
+            return null;
+        }
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
+    @Override
+    public void updateGoogleToken(String id, String googleToken) {
+        mongoTemplate.updateFirst(query(where("_id").is(id)), new Update().set("googleToken", googleToken),
+                UserEntity.class);
+    }
+
+    @Override
+    public void updatePassword(String id, String password) {
+        mongoTemplate.updateFirst(query(where("_id").is(id)), new Update().set("password", password),
+                UserEntity.class);
+    }
+
+    @Override
+    public UserEntity updateUserFields(UserEntity user) {
+        Update update = new Update()
+                .set("username", user.getUsername())
+                .set("email", user.getEmail())
+                .set("password", user.getPassword())
+                .set("active", user.getActive())
+                .set("rol", user.getRol())
+                .set("googleToken", user.getGoogleToken())
+                .set("description", user.getDescription())
+                .set("profileImage", user.getProfileImage());
+        return mongoTemplate.findAndModify(query(where("_id").is(user.getId())), update,
+                options().returnNew(false), UserEntity.class);
+    }
+
+}
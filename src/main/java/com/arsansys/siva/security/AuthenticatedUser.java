@@ -0,0 +1,46 @@
+package com.arsansys.siva.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import com.arsansys.siva.model.entity.UserEntity;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Detalles de un usuario autenticado que conservan la entidad cargada de la
+ * base de datos.
+ * <p>
+ * Permite que el flujo de inicio de sesión use la misma entidad que leyó el
+ * {@code AuthenticationManager} sin volver a consultarla.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class AuthenticatedUser extends User {
+
+    private final UserEntity userEntity;
+
+    /**
+     * Crea los detalles de usuario a partir de la entidad.
+     *
+     * @param userEntity  Entidad del usuario.
+     * @param authorities Autoridades concedidas.
+     */
+    public AuthenticatedUser(UserEntity userEntity, Collection<? extends GrantedAuthority> authorities) {
+        super(userEntity.getUsername(), userEntity.getPassword(), userEntity.getActive(), true, true, true,
+                authorities);
+        this.userEntity = userEntity;
+    }
+
+    /**
+     * Borra la contraseña tanto de los detalles como de la entidad asociada.
+     */
+    @Override
+    public void eraseCredentials() {
+        super.eraseCredentials();
+        userEntity.setPassword(null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.arsansys.siva.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -10,7 +11,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -21,7 +21,13 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import com.arsansys.siva.security.filters.JwtAuthenticationFilter;
 import com.arsansys.siva.security.filters.JwtAutorizationFilter;
 import com.arsansys.siva.security.jwt.JwtUtils;
+import com.arsansys.siva.security.password.BoundedPasswordEncoder;
+import com.arsansys.siva.security.password.PasswordEncoderPolicy;
+import com.arsansys.siva.service.RefreshTokenService;
 import com.arsansys.siva.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.util.Arrays;
 
@@ -49,6 +55,31 @@ public class SecurityConfig {
     @Lazy
     UserService userService;
 
+    @Autowired
+    @Lazy
+    RefreshTokenService refreshTokenService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${security.password.pool-size:0}")
+    int passwordPoolSize;
+
+    @Value("${security.password.queue-capacity:0}")
+    int passwordQueueCapacity;
+
+    @Value("${security.password.queue-wait-ms:250}")
+    long passwordQueueWaitMs;
+
+    @Value("${security.password.algorithm:bcrypt}")
+    String passwordAlgorithm;
+
+    @Value("${security.password.bcrypt-strength:12}")
+    int bcryptStrength;
+
+    @Value("${security.password.target-hash-ms:0}")
+    long passwordTargetHashMs;
+
     /**
      * Configura la cadena de filtros de seguridad.
      *
@@ -61,7 +92,8 @@ public class SecurityConfig {
     SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, AuthenticationManager authenticationManager)
             throws Exception {
 
-        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtils, userService);
+        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtils, userService,
+                refreshTokenService, objectMapper);
         jwtAuthenticationFilter.setAuthenticationManager(authenticationManager);
         jwtAuthenticationFilter.setFilterProcessesUrl("/login");
 
@@ -78,7 +110,8 @@ public class SecurityConfig {
                             "/vendedor/producto/getById/*", "/api/binary-image/*",
                             "/api/images/*", "/resorces/static/**", "/api/stripe/**", "/api/upload/**",
                             "/api/images/lowRes/**", "/getUserByEmail/**", "/getUserByUsername/**",
-                            "/admin/categoria/getById/**", "/admin/categoria/getAll", "/api/v1/products**")
+                            "/admin/categoria/getById/**", "/admin/categoria/getAll", "/api/v1/products**",
+                            "/.well-known/jwks.json", "/api/v1/auth/refresh", "/api/v1/auth/logout")
                             .permitAll();
                     auth.anyRequest().authenticated();
                     // auth.anyRequest().permitAll();
@@ -92,13 +125,30 @@ public class SecurityConfig {
     }
 
     /**
-     * Bean que proporciona un codificador de contraseñas BCrypt.
+     * Bean que proporciona el codificador de contraseñas.
+     * <p>
+     * Cifra con el algoritmo de {@code security.password.algorithm} (BCrypt por
+     * defecto, o Argon2). El coste de BCrypt es fijo
+     * ({@code security.password.bcrypt-strength}) o se calibra al arrancar para
+     * tardar {@code security.password.target-hash-ms} en esta máquina. Los
+     * hashes con otra política se recifran al iniciar sesión.
+     * <p>
+     * El cifrado se ejecuta en un pool acotado (por defecto, un hilo por CPU y
+     * una cola del doble) para que los picos de login no bloqueen el resto de
+     * peticiones. Lo que no cabe se rechaza al momento, y lo que lleva más de
+     * {@code security.password.queue-wait-ms} en cola sin empezar, también.
      *
-     * @return BCryptPasswordEncoder Codificador de contraseñas BCrypt.
+     * @param meterRegistry Registro de métricas.
+     * @return PasswordEncoder Codificador de contraseñas acotado.
      */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = passwordTargetHashMs > 0 ? PasswordEncoderPolicy.calibrateBcryptStrength(passwordTargetHashMs)
+                : bcryptStrength;
+        int poolSize = passwordPoolSize > 0 ? passwordPoolSize : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = passwordQueueCapacity > 0 ? passwordQueueCapacity : poolSize * 2;
+        return new BoundedPasswordEncoder(PasswordEncoderPolicy.build(passwordAlgorithm, strength), poolSize,
+                queueCapacity, passwordQueueWaitMs, meterRegistry);
     }
 
     /**
@@ -127,7 +177,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173"));
         // configuration.setAllowedOrigins(Arrays.asList("*"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
 
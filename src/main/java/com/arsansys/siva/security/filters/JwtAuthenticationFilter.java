@@ -3,17 +3,21 @@ package com.arsansys.siva.security.filters;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.arsansys.siva.model.entity.UserEntity;
+import com.arsansys.siva.model.entity.jwt.JwtRequest;
+import com.arsansys.siva.security.AuthenticatedUser;
 import com.arsansys.siva.security.jwt.JwtUtils;
+import com.arsansys.siva.security.password.PasswordHashingRejectedException;
+import com.arsansys.siva.service.RefreshTokenService;
 import com.arsansys.siva.service.UserService;
 import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.databind.DatabindException;
@@ -33,18 +37,29 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
+    // Atributo de la petición con el token de Google recibido en el login
+    private static final String GOOGLE_TOKEN_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".googleToken";
+
     private JwtUtils jwtUtils;
     private UserService userService;
+    private RefreshTokenService refreshTokenService;
+    private ObjectMapper objectMapper;
 
     /**
      * Constructor del filtro de autenticación JWT.
      *
-     * @param jwtUtils    Utilidades para la gestión de JWT.
-     * @param userService Servicio de usuarios para operaciones relacionadas.
+     * @param jwtUtils            Utilidades para la gestión de JWT.
+     * @param userService         Servicio de usuarios para operaciones
+     *                            relacionadas.
+     * @param refreshTokenService Servicio de refresh tokens.
+     * @param objectMapper        Mapper JSON compartido de la aplicación.
      */
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserService userService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserService userService,
+            RefreshTokenService refreshTokenService, ObjectMapper objectMapper) {
         this.jwtUtils = jwtUtils;
         this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -78,27 +93,31 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         }
 
         // Continúa con la lógica existente
-        UserEntity userEntity = null;
-        String username = "", password = "", googleToken = "";
+        JwtRequest jwtRequest = null;
 
         try {
-            userEntity = new ObjectMapper().readValue(request.getInputStream(), UserEntity.class);
-            username = userEntity.getUsername();
-            password = userEntity.getPassword();
-            googleToken = userEntity.getGoogleToken();
+            jwtRequest = objectMapper.readValue(request.getInputStream(), JwtRequest.class);
 
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    username, password);
-
-            if (googleToken != null && !googleToken.isEmpty()) {
-                UserEntity user = userService.getUserByUsername(username);
-                user.setGoogleToken(googleToken);
-                if (user != null) {
-                    userService.updateUser(user);
-                }
-            }
+                    jwtRequest.getUsername(), jwtRequest.getPassword());
+
+            // El token de Google se guarda tras autenticar, con el usuario ya cargado
+            request.setAttribute(GOOGLE_TOKEN_ATTRIBUTE, jwtRequest.getGoogleToken());
 
             return getAuthenticationManager().authenticate(authenticationToken);
+        } catch (PasswordHashingRejectedException e) {
+            // Pool de cifrado saturado: rechazar rápido en vez de encolar
+            writeRejection(response, e);
+            return null;
+        } catch (AuthenticationException e) {
+            // Con un usuario inexistente el proveedor también compara la
+            // contraseña (para igualar tiempos) y puede envolver el rechazo
+            PasswordHashingRejectedException rejection = hashingRejection(e);
+            if (rejection == null) {
+                throw e;
+            }
+            writeRejection(response, rejection);
+            return null;
         } catch (StreamReadException e) {
             throw new RuntimeException(e);
         } catch (DatabindException e) {
@@ -111,8 +130,10 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     /**
      * Acción a realizar en caso de autenticación exitosa.
      * <p>
-     * Genera un token JWT, lo añade a la respuesta y devuelve información relevante
-     * del usuario.
+     * Genera un token JWT de corta duración y un refresh token, los añade a la
+     * respuesta y devuelve información relevante del usuario. Usa la entidad
+     * cargada durante la autenticación, sin volver a leer el usuario, y solo
+     * guarda el token de Google si ha cambiado.
      *
      * @param request    Petición HTTP.
      * @param response   Respuesta HTTP.
@@ -126,20 +147,52 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
             HttpServletRequest request, HttpServletResponse response, FilterChain chain, Authentication authResult)
             throws IOException, ServletException {
 
-        User user = (User) authResult.getPrincipal();
-        String token = jwtUtils.generateAccesToken(user.getUsername());
+        AuthenticatedUser user = (AuthenticatedUser) authResult.getPrincipal();
+        UserEntity userEntity = user.getUserEntity();
+
+        String googleToken = (String) request.getAttribute(GOOGLE_TOKEN_ATTRIBUTE);
+        if (googleToken != null && !googleToken.isEmpty()
+                && !Objects.equals(googleToken, userEntity.getGoogleToken())) {
+            userService.updateGoogleToken(userEntity.getId(), googleToken);
+            userEntity.setGoogleToken(googleToken);
+        }
+
+        String token = jwtUtils.generateAccesToken(userEntity);
+        String refreshToken = refreshTokenService.issue(userEntity.getUsername());
 
         response.addHeader("Authorization", "Bearer " + token);
 
         Map<String, Object> httpResponse = new HashMap<>();
         httpResponse.put("token", token);
+        httpResponse.put("refreshToken", refreshToken);
         httpResponse.put("message", "Autenticacion Correcta");
         httpResponse.put("username", user.getUsername());
-        httpResponse.put("idUser", userService.getUserByUsername(user.getUsername()).getId());
+        httpResponse.put("idUser", userEntity.getId());
 
-        response.getWriter().write(new ObjectMapper().writeValueAsString(httpResponse));
+        response.getWriter().write(objectMapper.writeValueAsString(httpResponse));
         response.setStatus(HttpStatus.OK.value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.getWriter().flush();
     }
+
+    private static PasswordHashingRejectedException hashingRejection(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingRejectedException rejection) {
+                return rejection;
+            }
+        }
+        return null;
+    }
+
+    private void writeRejection(HttpServletResponse response, PasswordHashingRejectedException e) {
+        try {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(objectMapper.writeValueAsString(Map.of("message", e.getMessage())));
+            response.getWriter().flush();
+        } catch (IOException ioException) {
+            throw new RuntimeException(ioException);
+        }
+    }
 }
@@ -5,12 +5,11 @@ import java.io.IOException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.arsansys.siva.security.jwt.JwtPrincipal;
 import com.arsansys.siva.security.jwt.JwtUtils;
-import com.arsansys.siva.service.impl.UserDetailsServiceImpl;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -29,9 +28,6 @@ public class JwtAutorizationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
-    @Autowired
-    private UserDetailsServiceImpl userDetailsServiceImpl;
-
     /**
      * Método que se ejecuta por cada petición HTTP.
      * <p>
@@ -54,11 +50,10 @@ public class JwtAutorizationFilter extends OncePerRequestFilter {
         if (tokenHeader != null && tokenHeader.startsWith("Bearer ")) {
             String token = tokenHeader.substring(7, tokenHeader.length());
 
-            if (jwtUtils.isTokenValid(token)) {
-                String username = jwtUtils.getUsernameFromToken(token);
-                UserDetails userDetails = userDetailsServiceImpl.loadUserByUsername(username);
+            JwtPrincipal principal = jwtUtils.validateToken(token);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        username, null, userDetails.getAuthorities());
+                        principal.username(), null, principal.authorities());
 
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
 
@@ -0,0 +1,45 @@
+package com.arsansys.siva.security.jwt;
+
+import java.util.Date;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Política de expiración de Caffeine que caduca cada entrada en una fecha
+ * absoluta obtenida del propio valor, típicamente el 'exp' de un token.
+ *
+ * @param <K> Tipo de la clave.
+ * @param <V> Tipo del valor.
+ */
+class ExpiresAt<K, V> implements Expiry<K, V> {
+
+    private final Function<V, Date> expirationOf;
+
+    ExpiresAt(Function<V, Date> expirationOf) {
+        this.expirationOf = expirationOf;
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return remainingNanos(expirationOf.apply(value));
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return remainingNanos(expirationOf.apply(value));
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    private static long remainingNanos(Date expirationDate) {
+        if (expirationDate == null) {
+            return 0;
+        }
+        long remainingMillis = expirationDate.getTime() - System.currentTimeMillis();
+        return Math.max(0, remainingMillis) * 1_000_000L;
+    }
+}
@@ -0,0 +1,210 @@
+package com.arsansys.siva.security.jwt;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Anillo de claves para firmar y verificar tokens JWT.
+ * <p>
+ * Las claves se decodifican una sola vez al arrancar. Cada token emitido lleva
+ * en la cabecera 'kid' el identificador de la clave actual, y la verificación
+ * busca la clave por ese identificador entre la actual y las anteriores, de
+ * modo que rotar la clave no invalida los tokens ya emitidos.
+ * <p>
+ * Algoritmos soportados ({@code jwt.signing.algorithm}):
+ * <ul>
+ * <li>HMAC (por defecto): clave simétrica en {@code jwt.secret.key}.</li>
+ * <li>ES256 o EdDSA: par de claves en {@code jwt.signing.private-key}
+ * (PKCS#8) y {@code jwt.signing.public-key} (X.509), ambas en Base64. Las
+ * claves públicas se publican en {@code /.well-known/jwks.json} para que otros
+ * servicios verifiquen los tokens sin llamarnos.</li>
+ * </ul>
+ * Las claves anteriores se indican como listas {@code kid:base64} en
+ * {@code jwt.secret.previous-keys} (HMAC) y
+ * {@code jwt.signing.previous-public-keys} (asimétricas).
+ */
+@Component
+@Slf4j
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    @Value("${jwt.signing.algorithm:HMAC}")
+    private String algorithm;
+
+    @Value("${jwt.secret.key:}")
+    private String secretKey;
+
+    @Value("${jwt.secret.kid:}")
+    private String secretKid;
+
+    @Value("${jwt.secret.previous-keys:}")
+    private List<String> previousSecretKeys;
+
+    @Value("${jwt.signing.private-key:}")
+    private String privateKey;
+
+    @Value("${jwt.signing.public-key:}")
+    private String publicKey;
+
+    @Value("${jwt.signing.kid:}")
+    private String signingKid;
+
+    @Value("${jwt.signing.previous-public-keys:}")
+    private List<String> previousPublicKeys;
+
+    private String currentKid;
+
+    private Key signingKey;
+
+    // Clave usada para tokens emitidos antes de existir la cabecera 'kid'
+    private Key legacyKey;
+
+    private final Map<String, Key> verificationKeys = new LinkedHashMap<>();
+
+    private final List<PublicJwk<?>> publicJwks = new ArrayList<>();
+
+    /**
+     * Decodifica las claves configuradas.
+     */
+    @PostConstruct
+    public void init() {
+        if (!secretKey.isBlank()) {
+            String kid = secretKid.isBlank() ? kidOf(secretKey) : secretKid;
+            legacyKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+            verificationKeys.put(kid, legacyKey);
+            currentKid = kid;
+            signingKey = legacyKey;
+        }
+        for (String entry : previousSecretKeys) {
+            String[] parts = splitEntry(entry);
+            verificationKeys.putIfAbsent(parts[0], Keys.hmacShaKeyFor(Decoders.BASE64.decode(parts[1])));
+        }
+
+        if (!"HMAC".equalsIgnoreCase(algorithm)) {
+            String keyAlgorithm = keyFactoryAlgorithm(algorithm);
+            String kid = signingKid.isBlank() ? kidOf(publicKey) : signingKid;
+            PublicKey verificationKey = decodePublicKey(publicKey, keyAlgorithm);
+            signingKey = decodePrivateKey(privateKey, keyAlgorithm);
+            currentKid = kid;
+            verificationKeys.put(kid, verificationKey);
+            publicJwks.add(Jwks.builder().key(verificationKey).id(kid).build());
+            for (String entry : previousPublicKeys) {
+                String[] parts = splitEntry(entry);
+                PublicKey previous = decodePublicKey(parts[1], keyAlgorithm);
+                verificationKeys.putIfAbsent(parts[0], previous);
+                publicJwks.add(Jwks.builder().key(previous).id(parts[0]).build());
+            }
+        }
+
+        if (signingKey == null) {
+            throw new IllegalStateException("No hay clave de firma JWT configurada");
+        }
+        log.info("Anillo de claves JWT: algoritmo {}, kid actual {}, {} claves de verificación", algorithm,
+                currentKid, verificationKeys.size());
+    }
+
+    /**
+     * Obtiene la clave con la que se firman los tokens nuevos.
+     *
+     * @return Clave de firma actual.
+     */
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Obtiene el identificador de la clave de firma actual.
+     *
+     * @return Valor de la cabecera 'kid' de los tokens nuevos.
+     */
+    public String getCurrentKid() {
+        return currentKid;
+    }
+
+    /**
+     * Obtiene las claves públicas en formato JWK.
+     *
+     * @return Lista de claves públicas (vacía si se firma con HMAC).
+     */
+    public List<PublicJwk<?>> getPublicJwks() {
+        return Collections.unmodifiableList(publicJwks);
+    }
+
+    /**
+     * Localiza la clave de verificación indicada en la cabecera del token.
+     *
+     * @param header Cabecera del token firmado.
+     * @return Clave de verificación, o null si el 'kid' no es conocido.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            return legacyKey;
+        }
+        return verificationKeys.get(kid);
+    }
+
+    private static String[] splitEntry(String entry) {
+        int separator = entry.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalStateException("Clave JWT anterior sin formato kid:base64");
+        }
+        return new String[] { entry.substring(0, separator).trim(), entry.substring(separator + 1).trim() };
+    }
+
+    // Identificador estable derivado del propio material de la clave
+    private static String kidOf(String encodedKey) {
+        return TokenDigest.sha256(encodedKey).substring(0, 8);
+    }
+
+    private static String keyFactoryAlgorithm(String algorithm) {
+        switch (algorithm.toUpperCase()) {
+            case "ES256":
+                return "EC";
+            case "EDDSA":
+                return "Ed25519";
+            default:
+                throw new IllegalStateException("Algoritmo de firma JWT no soportado: " + algorithm);
+        }
+    }
+
+    private static PublicKey decodePublicKey(String encoded, String keyAlgorithm) {
+        try {
+            return KeyFactory.getInstance(keyAlgorithm)
+                    .generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(encoded)));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("Clave pública JWT no válida", e);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(String encoded, String keyAlgorithm) {
+        try {
+            return KeyFactory.getInstance(keyAlgorithm)
+                    .generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(encoded)));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("Clave privada JWT no válida", e);
+        }
+    }
+}
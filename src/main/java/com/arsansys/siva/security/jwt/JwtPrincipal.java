@@ -0,0 +1,18 @@
+package com.arsansys.siva.security.jwt;
+
+import java.util.Collection;
+import java.util.Date;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Principal autenticado obtenido de un token JWT ya verificado.
+ *
+ * @param username     Nombre de usuario (claim 'sub').
+ * @param expiration   Fecha de expiración del token (claim 'exp').
+ * @param tokenVersion Versión de tokens del usuario al emitirlo (claim 'ver').
+ * @param authorities  Autoridades concedidas al usuario.
+ */
+public record JwtPrincipal(String username, Date expiration, int tokenVersion,
+        Collection<? extends GrantedAuthority> authorities) {
+}
@@ -1,21 +1,31 @@
 package com.arsansys.siva.security.jwt;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.function.Function;
 
-import javax.crypto.SecretKey;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
 import com.arsansys.siva.model.entity.JwtEntity;
+import com.arsansys.siva.model.entity.UserEntity;
 import com.arsansys.siva.service.JwtService;
+import com.arsansys.siva.service.invalidation.InvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -27,54 +37,268 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JwtUtils {
 
-    @Value("${jwt.secret.key}")
-    private String secretKey;
+    /**
+     * Claim con el nombre del rol del usuario.
+     */
+    public static final String CLAIM_ROL = "rol";
+
+    /**
+     * Claim con el indicador de usuario activo.
+     */
+    public static final String CLAIM_ACTIVE = "active";
+
+    /**
+     * Claim con la versión de tokens del usuario.
+     */
+    public static final String CLAIM_VERSION = "ver";
+
+    // Vida a partir de la cual se avisa al arrancar de que el token de acceso
+    // ya no es de corta duración
+    private static final long LONG_LIVED_ACCESS_TOKEN_MS = Duration.ofHours(1).toMillis();
 
-    @Value("${jwt.time.expiration}")
-    private String timeExpiration;
+    // Vida de los tokens de acceso: corta, porque la sesión se renueva con el
+    // refresh token y solo las revocaciones explícitas pasan por la lista
+    @Value("${jwt.time.expiration:900000}")
+    private long timeExpiration;
 
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+
+    @Value("${jwt.claims.revalidate-ms:300000}")
+    private long claimsRevalidateMs;
+
+    private JwtParser jwtParser;
+
+    // Principales ya verificados, indexados por el resumen del token
+    private Cache<String, JwtPrincipal> principalCache;
+
+    // Momento del último cambio de rol o estado de cada usuario
+    private Cache<String, Long> claimsChangedAt;
+
+    /**
+     * Comprueba la vida de los tokens de acceso y prepara el parser, que
+     * localiza la clave de verificación en el anillo de claves, y las cachés
+     * de principales.
+     */
+    @PostConstruct
+    public void init() {
+        if (timeExpiration <= 0) {
+            throw new IllegalStateException("jwt.time.expiration debe ser mayor que cero");
+        }
+        if (timeExpiration > LONG_LIVED_ACCESS_TOKEN_MS) {
+            log.warn("jwt.time.expiration es de {} ms: los tokens de acceso deberían durar unos minutos",
+                    timeExpiration);
+        }
+        jwtParser = Jwts.parser()
+                .keyLocator(jwtKeyRing)
+                .build();
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfter(new ExpiresAt<String, JwtPrincipal>(principal -> revalidationDeadline(principal)))
+                .build();
+        claimsChangedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(claimsRevalidateMs))
+                .build();
+    }
+
     /**
      * Genera un token de acceso JWT para el usuario especificado.
+     * <p>
+     * El token incluye el rol y el estado del usuario para que las peticiones
+     * autenticadas no tengan que volver a cargarlo.
      *
-     * @param username Nombre de usuario.
+     * @param user Usuario autenticado.
      * @return Token JWT generado.
      */
     // Generar token acceso
-    public String generateAccesToken(String username) {
+    public String generateAccesToken(UserEntity user) {
         return Jwts.builder()
-                .subject(username)
+                .header().keyId(jwtKeyRing.getCurrentKid()).and()
+                .subject(user.getUsername())
+                .claim(CLAIM_ROL, user.getRol() != null ? user.getRol().getName().name() : null)
+                .claim(CLAIM_ACTIVE, user.getActive())
+                .claim(CLAIM_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + Long.parseLong(timeExpiration)))
-                .signWith(getSignatureKey())
+                .expiration(new Date(System.currentTimeMillis() + timeExpiration))
+                .signWith(jwtKeyRing.getSigningKey())
                 .compact();
     }
 
     /**
-     * Valida si un token JWT es válido.
+     * Valida un token JWT y devuelve el principal autenticado.
+     * <p>
+     * La firma y los claims solo se procesan la primera vez que se ve el token;
+     * las siguientes peticiones con el mismo token se sirven desde la caché hasta
+     * su expiración. La comprobación de revocación y de versión de tokens se hace
+     * siempre.
      *
      * @param token Token JWT a validar.
-     * @return true si el token es válido, false en caso contrario.
+     * @return Principal verificado, o null si el token no es válido.
      */
-    // Validar token acceso
-    public boolean isTokenValid(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSignatureKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            if (jwtService.findByToken(token) != null && !jwtService.findByToken(token).getIsValid()) {
-                log.error("Token invalido1: ".concat(token));
-                return false;
+    public JwtPrincipal validateToken(String token) {
+        String digest = TokenDigest.sha256(token);
+        if (tokenDenylist.isRevoked(digest)) {
+            log.error("Token invalido1: revocado ".concat(digest));
+            return null;
+        }
+        JwtPrincipal principal = principalCache.getIfPresent(digest);
+        if (principal == null) {
+            try {
+                Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+                principal = claimsAreCurrent(claims) ? principalFromClaims(claims) : principalFromUser(claims);
+                if (principal == null) {
+                    log.error("Token invalido3: usuario inactivo ".concat(claims.getSubject()));
+                    return null;
+                }
+                principalCache.put(digest, principal);
+            } catch (Exception e) {
+                log.error("Token invalido2: ".concat(String.valueOf(e.getMessage())));
+                return null;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Token invalido2: ".concat(e.getMessage()));
+        }
+        if (!tokenVersionCache.isCurrent(principal.username(), principal.tokenVersion())) {
+            log.error("Token invalido4: version revocada para ".concat(principal.username()));
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Registra la nueva versión de tokens de un usuario tras revocar todas sus
+     * sesiones, de modo que los tokens anteriores se rechacen de inmediato en
+     * todos los nodos.
+     *
+     * @param username Nombre de usuario.
+     * @param version  Nueva versión de tokens.
+     */
+    public void revokeUserTokens(String username, int version) {
+        applyTokenVersion(username, version);
+        invalidationBus.publish(new TokenVersionChangedEvent(username, version));
+    }
+
+    /**
+     * Fuerza que los tokens ya emitidos para el usuario vuelvan a comprobar su
+     * rol y estado contra la base de datos en la siguiente petición.
+     * <p>
+     * Debe llamarse cuando cambia el rol o el indicador de activo del usuario.
+     *
+     * @param username Nombre de usuario.
+     */
+    public void invalidateUserClaims(String username) {
+        applyClaimsChanged(username);
+        invalidationBus.publish(new UserClaimsChangedEvent(username));
+    }
+
+    /**
+     * Aplica una revocación de token hecha en otro nodo.
+     *
+     * @param event Token revocado.
+     */
+    @EventListener
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        applyRevocation(event.tokenDigest(), event.expirationDate());
+    }
+
+    /**
+     * Aplica un cambio de versión de tokens hecho en otro nodo.
+     *
+     * @param event Nueva versión de tokens del usuario.
+     */
+    @EventListener
+    public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+        applyTokenVersion(event.username(), event.version());
+    }
+
+    /**
+     * Aplica un cambio de rol o estado de usuario hecho en otro nodo.
+     *
+     * @param event Usuario modificado.
+     */
+    @EventListener
+    public void onUserClaimsChanged(UserClaimsChangedEvent event) {
+        applyClaimsChanged(event.username());
+    }
+
+    private void applyRevocation(String digest, Date expirationDate) {
+        tokenDenylist.revoke(digest, expirationDate);
+        principalCache.invalidate(digest);
+    }
+
+    private void applyTokenVersion(String username, int version) {
+        tokenVersionCache.update(username, version);
+        principalCache.asMap().values().removeIf(principal -> principal.username().equals(username));
+    }
+
+    private void applyClaimsChanged(String username) {
+        claimsChangedAt.put(username, System.currentTimeMillis());
+        principalCache.asMap().values().removeIf(principal -> principal.username().equals(username));
+    }
+
+    // Los claims se aceptan tal cual si son recientes y posteriores al último
+    // cambio conocido del usuario; si no, se revalidan contra la base de datos.
+    private boolean claimsAreCurrent(Claims claims) {
+        if (!claims.containsKey(CLAIM_ACTIVE) || claims.getIssuedAt() == null) {
             return false;
         }
+        long issuedAt = claims.getIssuedAt().getTime();
+        if (System.currentTimeMillis() - issuedAt > claimsRevalidateMs) {
+            return false;
+        }
+        Long changedAt = claimsChangedAt.getIfPresent(claims.getSubject());
+        return changedAt == null || issuedAt > changedAt;
+    }
+
+    private JwtPrincipal principalFromClaims(Claims claims) {
+        if (!Boolean.TRUE.equals(claims.get(CLAIM_ACTIVE, Boolean.class))) {
+            return null;
+        }
+        String rol = claims.get(CLAIM_ROL, String.class);
+        Collection<? extends GrantedAuthority> authorities = rol == null ? List.of()
+                : List.of(new SimpleGrantedAuthority("ROLE_".concat(rol)));
+        return new JwtPrincipal(claims.getSubject(), claims.getExpiration(), tokenVersionOf(claims), authorities);
+    }
+
+    private JwtPrincipal principalFromUser(Claims claims) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (!userDetails.isEnabled()) {
+            return null;
+        }
+        return new JwtPrincipal(claims.getSubject(), claims.getExpiration(), tokenVersionOf(claims),
+                userDetails.getAuthorities());
+    }
+
+    // Los tokens emitidos antes de existir el claim equivalen a la versión 0
+    private int tokenVersionOf(Claims claims) {
+        Integer version = claims.get(CLAIM_VERSION, Integer.class);
+        return version != null ? version : 0;
+    }
+
+    // Un principal en caché se descarta al caducar el token o, como tarde, al
+    // cumplirse el intervalo de revalidación de claims.
+    private Date revalidationDeadline(JwtPrincipal principal) {
+        Date revalidateAt = new Date(System.currentTimeMillis() + claimsRevalidateMs);
+        if (principal.expiration() == null || revalidateAt.before(principal.expiration())) {
+            return revalidateAt;
+        }
+        return principal.expiration();
     }
 
     /**
@@ -111,28 +335,13 @@ public class JwtUtils {
     // Obtener todos los claims(informacion) token
     public Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignatureKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             log.error("Error extracting claims from token: " + e.getMessage());
             throw new RuntimeException("Invalid token", e);
         }
     }
 
-    /**
-     * Obtiene la clave secreta para firmar y verificar tokens JWT.
-     *
-     * @return Clave secreta.
-     */
-    // Obtener firma token
-    public SecretKey getSignatureKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Invalida un token JWT, marcándolo como no válido en la base de datos.
      *
@@ -140,14 +349,17 @@ public class JwtUtils {
      */
     public void invalidateToken(String jwtTokenString) {
         try {
+            String digest = TokenDigest.sha256(jwtTokenString);
             JwtEntity jwtToken = new JwtEntity(); // Create a new instance instead of null
-            jwtToken.setToken(jwtTokenString);
+            jwtToken.setId(digest);
             jwtToken.setIsValid(false);
             Date expirationDate = getExpirationDateFromToken(jwtTokenString);
             jwtToken.setExpirationDate(expirationDate);
             jwtToken.setUsername(getUsernameFromToken(jwtTokenString));
 
             jwtService.save(jwtToken);
+            applyRevocation(digest, expirationDate);
+            invalidationBus.publish(new TokenRevokedEvent(digest, expirationDate));
         } catch (Exception e) {
             log.error("Error al invalidar el token: " + e.getMessage());
         }
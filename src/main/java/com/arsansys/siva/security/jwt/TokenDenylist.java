@@ -0,0 +1,109 @@
+package com.arsansys.siva.security.jwt;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.arsansys.siva.model.entity.JwtEntity;
+import com.arsansys.siva.service.JwtService;
+import com.arsansys.siva.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lista en memoria de tokens JWT revocados.
+ * <p>
+ * Se carga al arrancar desde la colección 'jwt' y se mantiene al día con cada
+ * llamada a {@link JwtUtils#invalidateToken(String)}, tanto en este nodo como
+ * en el resto a través del bus de invalidación. Cada entrada caduca sola
+ * en la fecha de expiración del token, momento a partir del cual la firma ya
+ * no es válida y no hace falta recordarlo.
+ * <p>
+ * Un filtro de Bloom delante del mapa responde el caso habitual (token no
+ * revocado) sin tocar MongoDB ni el propio mapa. Tanto el filtro como el mapa
+ * trabajan con el resumen del token ({@link TokenDigest}), no con el token.
+ */
+@Component
+@DependsOn("jwtStoreMigration")
+@Slf4j
+public class TokenDenylist {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Value("${jwt.denylist.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.denylist.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final Cache<String, Date> revoked = Caffeine.newBuilder()
+            .expireAfter(new ExpiresAt<String, Date>(expirationDate -> expirationDate))
+            .build();
+
+    private volatile BloomFilter filter;
+
+    /**
+     * Carga los tokens revocados que aún no han caducado.
+     */
+    @PostConstruct
+    public void load() {
+        List<JwtEntity> entries = jwtService.findRevokedNotExpired(new Date());
+        synchronized (this) {
+            filter = new BloomFilter(expectedEntries, falsePositiveRate);
+            entries.forEach(entry -> add(entry.getId(), entry.getExpirationDate()));
+        }
+        log.info("Lista de tokens revocados cargada: {} entradas", entries.size());
+    }
+
+    /**
+     * Registra un token como revocado hasta su fecha de expiración.
+     *
+     * @param tokenDigest    Resumen del token JWT revocado.
+     * @param expirationDate Fecha de expiración del token.
+     */
+    public synchronized void revoke(String tokenDigest, Date expirationDate) {
+        add(tokenDigest, expirationDate);
+    }
+
+    /**
+     * Indica si un token ha sido revocado.
+     *
+     * @param tokenDigest Resumen del token JWT.
+     * @return true si el token está revocado y aún no ha caducado.
+     */
+    public boolean isRevoked(String tokenDigest) {
+        if (!filter.mightContain(tokenDigest)) {
+            return false;
+        }
+        return revoked.getIfPresent(tokenDigest) != null;
+    }
+
+    /**
+     * Reconstruye el filtro de Bloom con las entradas vigentes para que los
+     * tokens ya caducados dejen de ocupar bits.
+     */
+    @Scheduled(fixedDelayString = "${jwt.denylist.rebuild-interval-ms:600000}")
+    public synchronized void rebuildFilter() {
+        revoked.cleanUp();
+        BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+        revoked.asMap().keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    private void add(String tokenDigest, Date expirationDate) {
+        if (expirationDate == null || expirationDate.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        filter.put(tokenDigest);
+        revoked.put(tokenDigest, expirationDate);
+    }
+}
@@ -0,0 +1,32 @@
+package com.arsansys.siva.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Calcula un resumen de tamaño fijo de un token JWT para usarlo como clave en
+ * cachés y almacenes sin guardar el token completo.
+ */
+public final class TokenDigest {
+
+    private TokenDigest() {
+    }
+
+    /**
+     * Calcula el SHA-256 del token codificado en Base64 URL sin relleno.
+     *
+     * @param token Token JWT.
+     * @return Resumen de 43 caracteres.
+     */
+    public static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
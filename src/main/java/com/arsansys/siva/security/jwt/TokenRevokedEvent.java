@@ -0,0 +1,14 @@
+package com.arsansys.siva.security.jwt;
+
+import java.util.Date;
+
+import com.arsansys.siva.service.invalidation.InvalidationEvent;
+
+/**
+ * Un token concreto ha sido revocado en otro nodo.
+ *
+ * @param tokenDigest    Resumen del token revocado.
+ * @param expirationDate Fecha de expiración del token.
+ */
+public record TokenRevokedEvent(String tokenDigest, Date expirationDate) implements InvalidationEvent {
+}
@@ -0,0 +1,73 @@
+package com.arsansys.siva.security.jwt;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.arsansys.siva.repository.mongo.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Caché de la versión de tokens vigente de cada usuario.
+ * <p>
+ * Un token cuya versión es menor que la del usuario se considera revocado. Los
+ * cambios hechos en este nodo se aplican al momento; los hechos en otros nodos
+ * llegan por el bus de invalidación y, si se pierde el mensaje, se ven como
+ * tarde al caducar la entrada.
+ */
+@Component
+public class TokenVersionCache {
+
+    // Versión usada para usuarios inexistentes: rechaza cualquier token
+    private static final int UNKNOWN_USER = Integer.MAX_VALUE;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.token-version.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${jwt.token-version.max-size:100000}")
+    private long maxSize;
+
+    private LoadingCache<String, Integer> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build(username -> {
+                    Integer version = userRepository.findTokenVersionByUsername(username);
+                    return version != null ? version : UNKNOWN_USER;
+                });
+    }
+
+    /**
+     * Indica si la versión de un token sigue vigente para el usuario.
+     *
+     * @param username     Nombre de usuario.
+     * @param tokenVersion Versión incluida en el token.
+     * @return true si el token no ha sido revocado por un cambio de versión.
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        return tokenVersion >= versions.get(username);
+    }
+
+    /**
+     * Registra la nueva versión de tokens de un usuario. Nunca retrocede: si
+     * llega una versión anterior a la conocida (mensajes desordenados), se
+     * conserva la mayor.
+     *
+     * @param username Nombre de usuario.
+     * @param version  Nueva versión.
+     */
+    public void update(String username, int version) {
+        versions.asMap().merge(username, version, Math::max);
+    }
+}
@@ -0,0 +1,13 @@
+package com.arsansys.siva.security.jwt;
+
+import com.arsansys.siva.service.invalidation.InvalidationEvent;
+
+/**
+ * La versión de tokens de un usuario ha cambiado en otro nodo, lo que revoca
+ * todos sus tokens anteriores.
+ *
+ * @param username Nombre de usuario.
+ * @param version  Nueva versión de tokens.
+ */
+public record TokenVersionChangedEvent(String username, int version) implements InvalidationEvent {
+}
@@ -0,0 +1,11 @@
+package com.arsansys.siva.security.jwt;
+
+import com.arsansys.siva.service.invalidation.InvalidationEvent;
+
+/**
+ * El rol o el estado de un usuario ha cambiado en otro nodo.
+ *
+ * @param username Nombre de usuario.
+ */
+public record UserClaimsChangedEvent(String username) implements InvalidationEvent {
+}
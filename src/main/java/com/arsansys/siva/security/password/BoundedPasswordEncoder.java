@@ -0,0 +1,164 @@
+package com.arsansys.siva.security.password;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Codificador de contraseñas que ejecuta el cifrado y la comprobación en un
+ * pool de hilos propio y acotado.
+ * <p>
+ * Así los hilos de Tomcat no compiten por CPU con un pico de inicios de sesión:
+ * como mucho se cifran tantas contraseñas a la vez como hilos tiene el pool.
+ * La admisión no bloquea: un semáforo del tamaño del pool más la cola deja
+ * pasar o rechaza al momento con {@link PasswordHashingRejectedException}.
+ * Una operación admitida espera en cola como mucho {@code queueWaitMs}; si
+ * no ha empezado en ese tiempo se retira de la cola y se rechaza. Una vez
+ * empezada no se interrumpe (BCrypt no atiende interrupciones) y se espera
+ * su resultado, de modo que un hilo nunca queda ocupado con trabajo que ya
+ * nadie espera.
+ * <p>
+ * Métricas publicadas: las del ejecutor ({@code executor.*} con nombre
+ * {@code password.hashing}, incluida la cola), {@code password.hashing.latency}
+ * por operación y {@code password.hashing.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int ABANDONED = 2;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final long queueWaitMs;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    /**
+     * Crea el codificador acotado.
+     *
+     * @param delegate      Codificador que realiza el trabajo.
+     * @param poolSize      Número de hilos del pool.
+     * @param queueCapacity Operaciones que pueden esperar en cola.
+     * @param queueWaitMs   Tiempo máximo que una operación espera en cola a
+     *                      empezar.
+     * @param meterRegistry Registro de métricas.
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long queueWaitMs,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.queueWaitMs = queueWaitMs;
+        this.permits = new Semaphore(poolSize + queueCapacity);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.latency").tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.latency").tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> work) {
+        if (!permits.tryAcquire()) {
+            throw reject("Demasiadas operaciones de contraseña en curso");
+        }
+        // Solo una de las dos partes gana: el hilo del pool al empezar, o el
+        // llamante al abandonar una operación que sigue en cola
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        FutureTask<T> task = new FutureTask<>(() -> {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return null;
+            }
+            try {
+                return work.call();
+            } finally {
+                permits.release();
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw reject("Demasiadas operaciones de contraseña en curso");
+        }
+        try {
+            try {
+                return task.get(queueWaitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (state.compareAndSet(QUEUED, ABANDONED)) {
+                    executor.remove(task);
+                    permits.release();
+                    throw reject("Tiempo de espera agotado en la cola de cifrado");
+                }
+                // Ya ha empezado: termina en lo que tarda un cifrado
+                return task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (state.compareAndSet(QUEUED, ABANDONED)) {
+                executor.remove(task);
+                permits.release();
+            }
+            throw new PasswordHashingRejectedException("Operación de contraseña interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private PasswordHashingRejectedException reject(String message) {
+        rejected.increment();
+        return new PasswordHashingRejectedException(message);
+    }
+}
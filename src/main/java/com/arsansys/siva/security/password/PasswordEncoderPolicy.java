@@ -0,0 +1,102 @@
+package com.arsansys.siva.security.password;
+
+import java.util.Map;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Política de cifrado de contraseñas configurable por entorno.
+ * <p>
+ * Construye un {@link DelegatingPasswordEncoder} que cifra con el algoritmo
+ * elegido (BCrypt o Argon2) y sigue comprobando los hashes antiguos, incluidos
+ * los BCrypt sin prefijo {@code {bcrypt}}. Un hash se considera desactualizado
+ * si se generó con otro algoritmo o con otro coste de BCrypt, mayor o menor,
+ * de modo que al iniciar sesión se vuelve a cifrar con la política actual.
+ */
+@Slf4j
+public final class PasswordEncoderPolicy {
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
+    private PasswordEncoderPolicy() {
+    }
+
+    /**
+     * Construye el codificador de contraseñas de la política.
+     *
+     * @param algorithm      Algoritmo para los hashes nuevos: "bcrypt" o "argon2".
+     * @param bcryptStrength Coste de BCrypt.
+     * @return Codificador delegante.
+     */
+    public static PasswordEncoder build(String algorithm, int bcryptStrength) {
+        PasswordEncoder bcrypt = new StrictBCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        String idForEncode = algorithm.toLowerCase();
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalStateException("Algoritmo de contraseñas no soportado: " + algorithm);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Hashes guardados antes de usar prefijos de algoritmo
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        log.info("Política de contraseñas: {} (coste BCrypt {})", idForEncode, bcryptStrength);
+        return delegating;
+    }
+
+    /**
+     * Calcula el mayor coste de BCrypt cuyo cifrado tarda como mucho el tiempo
+     * objetivo en esta máquina.
+     *
+     * @param targetMs Tiempo objetivo por cifrado, en milisegundos.
+     * @return Coste de BCrypt calibrado.
+     */
+    public static int calibrateBcryptStrength(long targetMs) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        probe.encode("calibracion"); // calentamiento
+        long start = System.nanoTime();
+        probe.encode("calibracion");
+        double baseMs = Math.max((System.nanoTime() - start) / 1_000_000.0, 0.1);
+
+        // Cada punto de coste duplica el trabajo
+        int strength = MIN_BCRYPT_STRENGTH + (int) Math.floor(Math.log(targetMs / baseMs) / Math.log(2));
+        strength = Math.max(MIN_BCRYPT_STRENGTH, Math.min(MAX_BCRYPT_STRENGTH, strength));
+        log.info("BCrypt calibrado: coste {} para un objetivo de {} ms (coste {} = {} ms)", strength, targetMs,
+                MIN_BCRYPT_STRENGTH, String.format("%.1f", baseMs));
+        return strength;
+    }
+
+    /**
+     * BCrypt que marca para recifrar cualquier hash con un coste distinto del
+     * configurado, no solo los de coste menor.
+     */
+    private static class StrictBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private final int strength;
+
+        StrictBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            // Formato: $2a$12$...
+            if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+                return false;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.arsansys.siva.security.password;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Se lanza cuando el pool de cifrado de contraseñas está saturado y la
+ * operación se rechaza en lugar de esperar en cola.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    /**
+     * Crea la excepción con el mensaje indicado.
+     *
+     * @param message Descripción del motivo del rechazo.
+     */
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
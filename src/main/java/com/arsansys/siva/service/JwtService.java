@@ -1,5 +1,8 @@
 package com.arsansys.siva.service;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 
 import com.arsansys.siva.model.entity.JwtEntity;
@@ -23,6 +26,14 @@ public interface JwtService {
      */
     JwtEntity findByToken(String token);
 
+    /**
+     * Obtiene los tokens JWT revocados que aún no han caducado.
+     * 
+     * @param now Fecha actual.
+     * @return Lista de entidades JWT revocadas y vigentes.
+     */
+    List<JwtEntity> findRevokedNotExpired(Date now);
+
     /**
      * Guarda una entidad JWT en la base de datos.
      * 
@@ -1,14 +1,40 @@
 package com.arsansys.siva.service;
 
+import com.arsansys.siva.model.dto.CategoryFacetDTO;
+import com.arsansys.siva.model.dto.HotProductDTO;
+import com.arsansys.siva.model.dto.ProductBulkItem;
+import com.arsansys.siva.model.dto.ProductBulkResponse;
 import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductLookupResponse;
+import com.arsansys.siva.model.dto.ProductPage;
+import com.arsansys.siva.model.dto.ProductPatchRequest;
 import com.arsansys.siva.model.dto.ProductRequest;
+import com.arsansys.siva.model.dto.ProductSearchRequest;
+import com.arsansys.siva.model.dto.ProductSuggestionDTO;
+import com.arsansys.siva.model.dto.StockItemRequest;
+import com.arsansys.siva.model.dto.StockLevelDTO;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface ProductService {
     ProductDTO createProduct(ProductRequest request);
     ProductDTO getProductById(String id);
+    ProductLookupResponse getProductsByIds(List<String> ids);
     List<ProductDTO> getAllProducts();
+    ProductPage getProducts(String cursor, Integer limit, Set<String> fields);
     List<ProductDTO> getProductsByCategory(String category);
+    ProductPage searchProducts(ProductSearchRequest request);
+    ProductPage textSearchProducts(String text, String category, String cursor, Integer limit);
+    List<ProductSuggestionDTO> autocomplete(String prefix, int limit);
+    List<CategoryFacetDTO> getCategoryFacets();
+    Stream<ProductDTO> streamProducts(String category, LocalDateTime updatedSince);
     ProductDTO updateProduct(String id, ProductRequest request);
+    ProductDTO patchProduct(String id, ProductPatchRequest request);
     void deleteProduct(String id);
+    ProductBulkResponse bulkWrite(List<ProductBulkItem> operations);
+    List<StockLevelDTO> reserveStock(List<StockItemRequest> items);
+    List<StockLevelDTO> releaseStock(List<StockItemRequest> items);
+    List<HotProductDTO> getHotProducts(int limit);
 }
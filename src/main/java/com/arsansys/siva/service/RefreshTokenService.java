@@ -0,0 +1,50 @@
+package com.arsansys.siva.service;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public interface RefreshTokenService {
+
+    /**
+     * Resultado de rotar un refresh token.
+     * 
+     * @param username     Usuario propietario del token.
+     * @param refreshToken Nuevo refresh token de la misma familia.
+     */
+    record Rotation(String username, String refreshToken) {
+    }
+
+    /**
+     * Emite un refresh token que inicia una familia nueva.
+     * 
+     * @param username Nombre de usuario.
+     * @return Refresh token generado.
+     */
+    String issue(String username);
+
+    /**
+     * Consume un refresh token y emite el siguiente de su familia.
+     * <p>
+     * Si el token ya se había usado se considera robado y se revoca toda la
+     * familia.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     * @return Rotación con el nuevo token, o null si el token no es válido.
+     */
+    Rotation rotate(String refreshToken);
+
+    /**
+     * Revoca la familia a la que pertenece un refresh token.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     */
+    void revoke(String refreshToken);
+
+    /**
+     * Revoca todos los refresh tokens de un usuario.
+     * 
+     * @param username Nombre de usuario.
+     */
+    void revokeAll(String username);
+
+}
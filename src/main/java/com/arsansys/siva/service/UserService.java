@@ -56,4 +56,39 @@ public interface UserService {
      */
     abstract void updateUser(UserEntity userEntity);
 
+    /**
+     * Guarda el token de Google de un usuario sin reescribir el resto del
+     * documento.
+     * 
+     * @param id          ID del usuario.
+     * @param googleToken Token de Google.
+     */
+    abstract void updateGoogleToken(String id, String googleToken);
+
+    /**
+     * Revoca todos los tokens emitidos para un usuario (cierre de sesión en todos
+     * los dispositivos).
+     * 
+     * @param username Nombre de usuario.
+     */
+    abstract void revokeAllTokens(String username);
+
+    /**
+     * Renueva la sesión de un usuario a partir de un refresh token.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     * @return Respuesta JWT con los nuevos tokens, o null si el refresh token no
+     *         es válido.
+     */
+    abstract JwtResponse refreshSession(String refreshToken);
+
+    /**
+     * Cierra la sesión asociada a un refresh token y anula el token de acceso
+     * presentado junto a él.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     * @param accessToken  Token de acceso presentado, o null si no hay.
+     */
+    abstract void logout(String refreshToken, String accessToken);
+
 }
@@ -0,0 +1,225 @@
+package com.arsansys.siva.service.cache;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import com.arsansys.siva.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de productos, por id y por categoría.
+ * <p>
+ * Las lecturas pasan por la caché y solo consultan MongoDB en caso de fallo.
+ * Cada lectura se anota en {@link ProductPopularity}, y un valor cargado solo
+ * se guarda si su clave es frecuente.
+ * Los fallos concurrentes sobre la misma clave comparten una única consulta
+ * ({@link SingleFlight}), y si falla todos reciben el mismo error. Las entradas
+ * se eliminan por tamaño y por antigüedad, y al recibir un
+ * {@link ProductChangedEvent} se invalidan exactamente el id y las categorías
+ * afectadas. Un valor cargado no se guarda si durante la carga llegó alguna
+ * invalidación, para no dejar en la caché un estado anterior a la escritura.
+ * Los productos se entregan siempre como copias: quien los recibe puede
+ * modificarlos sin alterar la entrada guardada ni lo que ven otras peticiones.
+ * <p>
+ * Las estadísticas se publican en el actuator como {@code cache.*} con las
+ * etiquetas {@code products.byId} y {@code products.byCategory}, y las
+ * consultas evitadas por agrupación como {@code products.cache.coalesced}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCache {
+
+    private final MeterRegistry meterRegistry;
+    private final ProductPopularity popularity;
+
+    @Value("${products.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${products.cache.category-max-size:500}")
+    private long categoryMaxSize;
+
+    @Value("${products.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private Cache<String, ProductDTO> byId;
+
+    private Cache<String, List<ProductDTO>> byCategory;
+
+    private final SingleFlight<String, ProductDTO> byIdLoads = new SingleFlight<>();
+
+    private final SingleFlight<String, List<ProductDTO>> byCategoryLoads = new SingleFlight<>();
+
+    // Se incrementa con cada invalidación; una carga que lo ve cambiar se descarta
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        byCategory = Caffeine.newBuilder()
+                .maximumSize(categoryMaxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byCategory, "products.byCategory");
+        FunctionCounter.builder("products.cache.coalesced", byIdLoads, SingleFlight::coalescedCalls)
+                .description("Consultas a MongoDB evitadas por agrupar fallos concurrentes")
+                .tag("cache", "products.byId")
+                .register(meterRegistry);
+        FunctionCounter.builder("products.cache.coalesced", byCategoryLoads, SingleFlight::coalescedCalls)
+                .description("Consultas a MongoDB evitadas por agrupar fallos concurrentes")
+                .tag("cache", "products.byCategory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene un producto por id, cargándolo si no está en caché.
+     *
+     * @param id     Id del producto
+     * @param loader Carga el producto desde la base de datos; puede devolver null
+     * @return Producto, o null si no existe
+     */
+    public ProductDTO getById(String id, Function<String, ProductDTO> loader) {
+        boolean admit = popularity.recordProduct(id);
+        ProductDTO product = byId.getIfPresent(id);
+        if (product == null) {
+            product = byIdLoads.execute(id, () -> load(byId, id, loader, admit));
+        }
+        return copy(product);
+    }
+
+    /**
+     * Carga un producto en la caché sin anotarlo como lectura en
+     * {@link ProductPopularity}, por ejemplo al precargar los productos
+     * populares al arrancar, cuya frecuencia ya se ha sembrado.
+     *
+     * @param id     Id del producto
+     * @param loader Carga el producto desde la base de datos; puede devolver null
+     * @return true si el producto existe
+     */
+    public boolean preload(String id, Function<String, ProductDTO> loader) {
+        if (byId.getIfPresent(id) != null) {
+            return true;
+        }
+        return byIdLoads.execute(id, () -> load(byId, id, loader, true)) != null;
+    }
+
+    /**
+     * Obtiene varios productos por id. Los que no están en caché se cargan
+     * todos juntos con una sola llamada al cargador.
+     *
+     * @param ids    Ids de los productos
+     * @param loader Carga los productos que faltan desde la base de datos,
+     *               indexados por id; los inexistentes no aparecen
+     * @return Productos encontrados, indexados por id
+     */
+    public Map<String, ProductDTO> getAllById(Collection<String> ids,
+            Function<Set<String>, Map<String, ProductDTO>> loader) {
+        Map<String, ProductDTO> found = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        Set<String> admitted = new HashSet<>();
+        for (String id : ids) {
+            if (popularity.recordProduct(id)) {
+                admitted.add(id);
+            }
+            ProductDTO product = byId.getIfPresent(id);
+            if (product != null) {
+                found.put(id, copy(product));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        long startGeneration = generation.get();
+        Map<String, ProductDTO> loaded = loader.apply(misses);
+        loaded.forEach((id, product) -> found.put(id, copy(product)));
+        if (generation.get() == startGeneration) {
+            loaded.forEach((id, product) -> {
+                if (admitted.contains(id)) {
+                    byId.put(id, product);
+                }
+            });
+            if (generation.get() != startGeneration) {
+                byId.invalidateAll(loaded.keySet());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Obtiene los productos de una categoría, cargándolos si no están en caché.
+     *
+     * @param category Categoría
+     * @param loader   Carga los productos desde la base de datos
+     * @return Productos de la categoría
+     */
+    public List<ProductDTO> getByCategory(String category, Function<String, List<ProductDTO>> loader) {
+        boolean admit = popularity.recordCategory(category);
+        List<ProductDTO> products = byCategory.getIfPresent(category);
+        if (products == null) {
+            products = byCategoryLoads.execute(category, () -> load(byCategory, category, loader, admit));
+        }
+        return products.stream().map(ProductCache::copy).toList();
+    }
+
+    /**
+     * Invalida las entradas afectadas por un cambio de producto.
+     *
+     * @param event Cambio realizado
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        byId.invalidate(event.productId());
+        evictCategoryOf(event.before());
+        evictCategoryOf(event.after());
+    }
+
+    private <V> V load(Cache<String, V> cache, String key, Function<String, V> loader, boolean admit) {
+        long startGeneration = generation.get();
+        V value = loader.apply(key);
+        if (admit && value != null && generation.get() == startGeneration) {
+            cache.put(key, value);
+            // Invalidación llegada entre la comprobación y el put
+            if (generation.get() != startGeneration) {
+                cache.invalidate(key);
+            }
+        }
+        return value;
+    }
+
+    private static ProductDTO copy(ProductDTO product) {
+        return product != null ? product.toBuilder().build() : null;
+    }
+
+    private void evictCategoryOf(ProductDTO product) {
+        if (product != null && product.getCategory() != null) {
+            byCategory.invalidate(product.getCategory());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.arsansys.siva.service.cache;
+
+import com.arsansys.siva.repository.mongo.ProductRepository;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Guarda periódicamente los productos más pedidos en la colección
+ * 'product_hot_set' y, al arrancar, los vuelve a cargar en la caché para que
+ * un nodo nuevo no empiece con la caché fría.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductHotSet {
+
+    private static final String COLLECTION = "product_hot_set";
+    private static final String DOCUMENT_ID = "products";
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductPopularity popularity;
+    private final ProductCache productCache;
+    private final ProductRepository productRepository;
+
+    @Value("${products.hot.persist-size:100}")
+    private int persistSize;
+
+    @Value("${products.hot.warm-up:true}")
+    private boolean warmUp;
+
+    /**
+     * Guarda el conjunto actual de productos populares.
+     */
+    @Scheduled(fixedDelayString = "${products.hot.persist-interval-ms:300000}",
+            initialDelayString = "${products.hot.persist-interval-ms:300000}")
+    public void persist() {
+        List<Document> entries = popularity.hotProducts(persistSize).stream()
+                .map(entry -> new Document("id", entry.getKey()).append("hits", entry.getValue()))
+                .toList();
+        if (entries.isEmpty()) {
+            return;
+        }
+        mongoTemplate.getCollection(COLLECTION).replaceOne(Filters.eq("_id", DOCUMENT_ID),
+                new Document("_id", DOCUMENT_ID).append("entries", entries).append("updatedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Recupera el último conjunto guardado y precarga sus productos en la
+     * caché. La precarga no cuenta como lectura: la frecuencia de cada
+     * producto es la guardada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        Document saved = mongoTemplate.getCollection(COLLECTION).find(Filters.eq("_id", DOCUMENT_ID)).first();
+        if (saved == null) {
+            return;
+        }
+        int loaded = 0;
+        for (Document entry : saved.getList("entries", Document.class, List.of())) {
+            String id = entry.getString("id");
+            popularity.seedProduct(id, entry.getInteger("hits", 0));
+            try {
+                if (productCache.preload(id, productRepository::findDtoById)) {
+                    loaded++;
+                } else {
+                    // Producto eliminado desde que se guardó el conjunto
+                    log.debug("Producto popular {} no disponible", id);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Producto popular {} no disponible: {}", id, e.getMessage());
+            }
+        }
+        log.info("Caché de productos precargada con {} productos populares", loaded);
+    }
+}
@@ -0,0 +1,89 @@
+package com.arsansys.siva.service.cache;
+
+import com.arsansys.siva.util.CountMinSketch;
+import com.arsansys.siva.util.TopK;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frecuencia aproximada de acceso a productos y categorías.
+ * <p>
+ * Cada lectura por id o por categoría suma una aparición en un
+ * {@link CountMinSketch} con envejecimiento. La frecuencia decide qué entra en
+ * la {@link ProductCache}: solo se guardan las claves vistas al menos
+ * {@code products.cache.admission.min-frequency} veces recientemente, así que
+ * los recorridos del catálogo y los rastreadores, que piden cada producto una
+ * vez, no desplazan a los productos populares. Los productos más pedidos se
+ * mantienen además en un {@link TopK}.
+ */
+@Component
+public class ProductPopularity {
+
+    private static final String PRODUCT_PREFIX = "p:";
+    private static final String CATEGORY_PREFIX = "c:";
+
+    @Value("${products.popularity.expected-keys:100000}")
+    private int expectedKeys;
+
+    @Value("${products.popularity.top-size:100}")
+    private int topSize;
+
+    @Value("${products.cache.admission.min-frequency:2}")
+    private int minFrequency;
+
+    private CountMinSketch sketch;
+
+    private TopK hotProducts;
+
+    @PostConstruct
+    public void init() {
+        hotProducts = new TopK(topSize);
+        sketch = new CountMinSketch(expectedKeys, hotProducts::age);
+    }
+
+    /**
+     * Registra una lectura de producto.
+     *
+     * @param id Id del producto
+     * @return true si el producto es lo bastante frecuente para entrar en caché
+     */
+    public boolean recordProduct(String id) {
+        int frequency = sketch.increment(PRODUCT_PREFIX + id);
+        hotProducts.offer(id, frequency);
+        return frequency >= minFrequency;
+    }
+
+    /**
+     * Registra una lectura de categoría.
+     *
+     * @param category Categoría
+     * @return true si la categoría es lo bastante frecuente para entrar en caché
+     */
+    public boolean recordCategory(String category) {
+        return sketch.increment(CATEGORY_PREFIX + category) >= minFrequency;
+    }
+
+    /**
+     * Suma accesos ya conocidos de un producto, por ejemplo al arrancar con el
+     * conjunto de productos populares guardado.
+     *
+     * @param id   Id del producto
+     * @param hits Accesos a sumar
+     */
+    public void seedProduct(String id, int hits) {
+        hotProducts.offer(id, sketch.add(PRODUCT_PREFIX + id, Math.max(hits, minFrequency)));
+    }
+
+    /**
+     * Obtiene los productos más pedidos.
+     *
+     * @param limit Número máximo de productos
+     * @return Pares id-frecuencia estimada, de mayor a menor
+     */
+    public List<Map.Entry<String, Integer>> hotProducts(int limit) {
+        return hotProducts.top(limit);
+    }
+}
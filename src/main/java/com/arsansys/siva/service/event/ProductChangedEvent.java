@@ -0,0 +1,27 @@
+package com.arsansys.siva.service.event;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.service.invalidation.InvalidationEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Evento publicado cada vez que se crea, modifica o elimina un producto.
+ * <p>
+ * {@code before} es null en las altas y {@code after} es null en las bajas.
+ * Se difunde también al resto de nodos por el bus de invalidación.
+ *
+ * @param before Estado del producto antes del cambio
+ * @param after  Estado del producto después del cambio
+ */
+public record ProductChangedEvent(ProductDTO before, ProductDTO after) implements InvalidationEvent {
+
+    /**
+     * Obtiene el id del producto afectado.
+     *
+     * @return Id del producto
+     */
+    @JsonIgnore
+    public String productId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
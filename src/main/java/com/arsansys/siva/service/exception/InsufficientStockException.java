@@ -0,0 +1,29 @@
+package com.arsansys.siva.service.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Se lanza cuando no hay stock suficiente para reservar la cantidad pedida de
+ * un producto. Ninguna de las reservas de la misma petición queda aplicada.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final String productId;
+
+    /**
+     * Crea la excepción para el producto indicado.
+     *
+     * @param productId Id del producto sin stock suficiente
+     * @param requested Cantidad pedida
+     * @param available Stock disponible en el momento del fallo
+     */
+    public InsufficientStockException(String productId, int requested, int available) {
+        super("Stock insuficiente para el producto " + productId + ": pedido " + requested
+                + ", disponible " + available);
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,27 @@
+package com.arsansys.siva.service.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Se lanza cuando una cantidad de stock, o el stock resultante de aplicarla,
+ * no cabe en un entero. Ninguno de los cambios de la misma petición queda
+ * aplicado.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+@Getter
+public class InvalidStockQuantityException extends RuntimeException {
+
+    private final String productId;
+
+    /**
+     * Crea la excepción para el producto indicado.
+     *
+     * @param productId Id del producto con la cantidad no válida
+     */
+    public InvalidStockQuantityException(String productId) {
+        super("Cantidad de stock fuera de rango para el producto " + productId);
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,21 @@
+package com.arsansys.siva.service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Se lanza cuando un producto ha cambiado desde la versión que el cliente
+ * indicó como esperada, de modo que la modificación no se aplica.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ProductConflictException extends RuntimeException {
+
+    /**
+     * Crea la excepción para el producto indicado.
+     *
+     * @param productId Id del producto modificado por otro cliente
+     */
+    public ProductConflictException(String productId) {
+        super("El producto " + productId + " ha sido modificado por otra operación");
+    }
+}
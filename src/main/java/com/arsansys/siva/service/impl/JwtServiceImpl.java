@@ -1,10 +1,14 @@
 package com.arsansys.siva.service.impl;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.arsansys.siva.model.entity.JwtEntity;
 import com.arsansys.siva.repository.mongo.JwtRepository;
+import com.arsansys.siva.security.jwt.TokenDigest;
 import com.arsansys.siva.service.JwtService;
 
 
@@ -36,7 +40,18 @@ public class JwtServiceImpl implements JwtService {
      */
     @Override
     public JwtEntity findByToken(String token) {
-        return jwtRepository.findByToken(token);
+        return jwtRepository.findById(TokenDigest.sha256(token)).orElse(null);
+    }
+
+    /**
+     * Obtiene los tokens JWT revocados que aún no han caducado.
+     * 
+     * @param now Fecha actual.
+     * @return Lista de entidades JWT revocadas y vigentes.
+     */
+    @Override
+    public List<JwtEntity> findRevokedNotExpired(Date now) {
+        return jwtRepository.findByIsValidFalseAndExpirationDateAfter(now);
     }
 
     /**
@@ -1,21 +1,84 @@
 package com.arsansys.siva.service.impl;
 
+import com.arsansys.siva.model.dto.CategoryFacetDTO;
+import com.arsansys.siva.model.dto.HotProductDTO;
+import com.arsansys.siva.model.dto.ProductBulkItem;
+import com.arsansys.siva.model.dto.ProductBulkResponse;
+import com.arsansys.siva.model.dto.ProductBulkResult;
 import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductLookupResponse;
+import com.arsansys.siva.model.dto.ProductPage;
+import com.arsansys.siva.model.dto.ProductPatchRequest;
 import com.arsansys.siva.model.dto.ProductRequest;
+import com.arsansys.siva.model.dto.ProductSearchRequest;
+import com.arsansys.siva.model.dto.ProductSuggestionDTO;
+import com.arsansys.siva.model.dto.StockItemRequest;
+import com.arsansys.siva.model.dto.StockLevelDTO;
 import com.arsansys.siva.model.entity.Product;
+import com.arsansys.siva.model.enums.EBulkOperation;
+import com.arsansys.siva.model.enums.EBulkStatus;
 import com.arsansys.siva.repository.mongo.ProductRepository;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.BulkWrite;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.BulkWriteOutcome;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.SearchQuery;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.StockUpdate;
 import com.arsansys.siva.service.ProductService;
+import com.arsansys.siva.service.cache.ProductCache;
+import com.arsansys.siva.service.cache.ProductPopularity;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import com.arsansys.siva.service.exception.InsufficientStockException;
+import com.arsansys.siva.service.exception.InvalidStockQuantityException;
+import com.arsansys.siva.service.exception.ProductConflictException;
+import com.arsansys.siva.service.invalidation.InvalidationBus;
+import com.arsansys.siva.service.search.CategoryStats;
+import com.arsansys.siva.service.search.ProductNameIndex;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    // Campos que se pueden pedir en las proyecciones de listados
+    private static final Set<String> SELECTABLE_FIELDS = Set.of(
+            "name", "description", "price", "stock", "category", "createdAt", "updatedAt");
+
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductPopularity productPopularity;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationBus invalidationBus;
+    private final Validator validator;
+    private final ProductNameIndex productNameIndex;
+    private final CategoryStats categoryStats;
+
+    @Value("${products.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${products.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${products.search.text.max-results:1000}")
+    private int maxTextResults;
 
     @Override
     public ProductDTO createProduct(ProductRequest request) {
@@ -29,37 +92,165 @@ public class ProductServiceImpl implements ProductService {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        Product savedProduct = productRepository.save(product);
-        return mapToDTO(savedProduct);
+        ProductDTO created = mapToDTO(productRepository.save(product));
+        publishChange(new ProductChangedEvent(null, created));
+        return created;
     }
 
     @Override
     public ProductDTO getProductById(String id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
-        return mapToDTO(product);
+        ProductDTO product = productCache.getById(id,
+                productRepository::findDtoById);
+        if (product == null) {
+            throw new RuntimeException("Producto no encontrado con id: " + id);
+        }
+        return product;
+    }
+
+    @Override
+    public ProductLookupResponse getProductsByIds(List<String> ids) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        Map<String, ProductDTO> found = productCache.getAllById(requested,
+                missing -> productRepository.findAllDtosById(missing).stream()
+                        .collect(Collectors.toMap(ProductDTO::getId, Function.identity())));
+
+        return ProductLookupResponse.builder()
+                .products(requested.stream().filter(found::containsKey).map(found::get)
+                        .collect(Collectors.toList()))
+                .missing(requested.stream().filter(id -> !found.containsKey(id))
+                        .collect(Collectors.toList()))
+                .build();
     }
 
     @Override
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        // Cursor del servidor: los documentos se leen como DTO por lotes
+        try (Stream<ProductDTO> products = productRepository.streamByCategoryAndUpdatedSince(null, null)) {
+            return products.toList();
+        }
+    }
+
+    @Override
+    public ProductPage getProducts(String cursor, Integer limit, Set<String> fields) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        Set<String> projection = new LinkedHashSet<>();
+        if (fields != null) {
+            fields.stream().filter(SELECTABLE_FIELDS::contains).forEach(projection::add);
+        }
+
+        // Se pide un producto de más para saber si hay página siguiente
+        List<ProductDTO> products = productRepository.findPageAfter(decodeCursor(cursor), pageSize + 1, projection);
+        boolean hasMore = products.size() > pageSize;
+        if (hasMore) {
+            products = products.subList(0, pageSize);
+        }
+
+        return ProductPage.builder()
+                .items(products)
+                .nextCursor(hasMore ? encodeCursor(products.get(products.size() - 1).getId()) : null)
+                .build();
     }
 
     @Override
     public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return productCache.getByCategory(category,
+                key -> List.copyOf(productRepository.findDtosByCategory(key)));
+    }
+
+    @Override
+    public ProductPage searchProducts(ProductSearchRequest request) {
+        int pageSize = request.getLimit() == null || request.getLimit() <= 0 ? defaultPageSize
+                : Math.min(request.getLimit(), maxPageSize);
+        String sortField = request.getSort() != null ? request.getSort() : "createdAt";
+        Sort.Direction direction = "desc".equals(request.getDirection()) ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        String afterId = null;
+        Object afterValue = null;
+        String cursor = decodeCursor(request.getCursor());
+        if (cursor != null) {
+            // Formato: campo de orden, id y valor, separados por saltos de línea
+            String[] parts = cursor.split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(sortField)) {
+                throw new RuntimeException("Cursor no válido: " + request.getCursor());
+            }
+            afterId = parts[1];
+            afterValue = parseSortValue(sortField, parts[2]);
+        }
+
+        List<ProductDTO> products = productRepository.search(new SearchQuery(request.getCategory(),
+                request.getMinPrice(), request.getMaxPrice(), Boolean.TRUE.equals(request.getInStock()),
+                sortField, direction, afterValue, afterId, pageSize + 1));
+        boolean hasMore = products.size() > pageSize;
+        if (hasMore) {
+            products = products.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductDTO last = products.get(products.size() - 1);
+            nextCursor = encodeCursor(sortField + "\n" + last.getId() + "\n" + sortValueOf(sortField, last));
+        }
+        return ProductPage.builder()
+                .items(products)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public ProductPage textSearchProducts(String text, String category, String cursor, Integer limit) {
+        if (text == null || text.isBlank()) {
+            throw new RuntimeException("El texto de búsqueda es requerido");
+        }
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        // La relevancia no se puede recorrer por índice, así que el cursor guarda
+        // la posición y la búsqueda se limita a los primeros resultados
+        int offset = 0;
+        String decoded = decodeCursor(cursor);
+        if (decoded != null) {
+            try {
+                offset = Integer.parseInt(decoded);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Cursor no válido: " + cursor);
+            }
+        }
+        int size = Math.min(pageSize, maxTextResults - offset);
+        if (offset < 0 || size <= 0) {
+            return ProductPage.builder().items(List.of()).build();
+        }
+
+        List<ProductDTO> products = productRepository.textSearch(text, category, offset, size + 1);
+        boolean hasMore = products.size() > size && offset + size < maxTextResults;
+        if (products.size() > size) {
+            products = products.subList(0, size);
+        }
+        return ProductPage.builder()
+                .items(products)
+                .nextCursor(hasMore ? encodeCursor(String.valueOf(offset + size)) : null)
+                .build();
+    }
+
+    @Override
+    public List<ProductSuggestionDTO> autocomplete(String prefix, int limit) {
+        return productNameIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public List<CategoryFacetDTO> getCategoryFacets() {
+        return categoryStats.getFacets();
+    }
+
+    @Override
+    public Stream<ProductDTO> streamProducts(String category, LocalDateTime updatedSince) {
+        return productRepository.streamByCategoryAndUpdatedSince(category, updatedSince);
     }
 
     @Override
     public ProductDTO updateProduct(String id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+        ProductDTO before = mapToDTO(product);
 
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -68,16 +259,318 @@ public class ProductServiceImpl implements ProductService {
         product.setCategory(request.getCategory());
         product.setUpdatedAt(LocalDateTime.now());
 
-        Product updatedProduct = productRepository.save(product);
-        return mapToDTO(updatedProduct);
+        ProductDTO updated = mapToDTO(productRepository.save(product));
+        publishChange(new ProductChangedEvent(before, updated));
+        return updated;
+    }
+
+    @Override
+    public ProductDTO patchProduct(String id, ProductPatchRequest request) {
+        // MongoDB guarda las fechas con precisión de milisegundos
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime expected = request.getExpectedUpdatedAt() != null
+                ? request.getExpectedUpdatedAt().truncatedTo(ChronoUnit.MILLIS)
+                : null;
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (request.getName() != null) {
+            fields.put("name", request.getName());
+        }
+        if (request.getDescription() != null) {
+            fields.put("description", request.getDescription());
+        }
+        if (request.getPrice() != null) {
+            fields.put("price", request.getPrice());
+        }
+        if (request.getStock() != null) {
+            fields.put("stock", request.getStock());
+        }
+        if (request.getCategory() != null) {
+            fields.put("category", request.getCategory());
+        }
+        fields.put("updatedAt", now);
+
+        Product previous = productRepository.patch(id, fields, expected);
+        if (previous == null) {
+            if (expected != null && productRepository.existsById(id)) {
+                throw new ProductConflictException(id);
+            }
+            throw new RuntimeException("Producto no encontrado con id: " + id);
+        }
+
+        // El documento devuelto es el anterior; el nuevo se obtiene aplicando el
+        // mismo $set en memoria, sin otra lectura.
+        ProductDTO before = mapToDTO(previous);
+        ProductDTO after = mapToDTO(previous);
+        if (request.getName() != null) {
+            after.setName(request.getName());
+        }
+        if (request.getDescription() != null) {
+            after.setDescription(request.getDescription());
+        }
+        if (request.getPrice() != null) {
+            after.setPrice(request.getPrice());
+        }
+        if (request.getStock() != null) {
+            after.setStock(request.getStock());
+        }
+        if (request.getCategory() != null) {
+            after.setCategory(request.getCategory());
+        }
+        after.setUpdatedAt(now);
+
+        publishChange(new ProductChangedEvent(before, after));
+        return after;
     }
 
     @Override
     public void deleteProduct(String id) {
-        if (!productRepository.existsById(id)) {
+        Product deleted = productRepository.findAndRemoveById(id);
+        if (deleted == null) {
             throw new RuntimeException("Producto no encontrado");
         }
-        productRepository.deleteById(id);
+        publishChange(new ProductChangedEvent(mapToDTO(deleted), null));
+    }
+
+    @Override
+    public ProductBulkResponse bulkWrite(List<ProductBulkItem> operations) {
+        ProductBulkResult[] results = new ProductBulkResult[operations.size()];
+
+        // Productos existentes afectados por UPDATE y DELETE, en una sola consulta.
+        // Cada id solo puede aparecer una vez: dos escrituras del mismo producto
+        // en un lote no ordenado no tienen un resultado definido.
+        Set<String> targetIds = new LinkedHashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            ProductBulkItem item = operations.get(i);
+            String error = validateBulkItem(item);
+            if (error != null) {
+                results[i] = bulkResult(i, item, item.getId(), EBulkStatus.INVALID, error);
+            } else if (item.getOperation() != EBulkOperation.CREATE && !targetIds.add(item.getId())) {
+                results[i] = bulkResult(i, item, item.getId(), EBulkStatus.INVALID,
+                        "El id está repetido en el lote: " + item.getId());
+            }
+        }
+        Map<String, Product> existing = targetIds.isEmpty() ? Map.of()
+                : productRepository.findAllById(targetIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Precisión de MongoDB, para poder comparar con la fecha guardada
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<BulkWrite> writes = new ArrayList<>();
+        List<Integer> writeIndexes = new ArrayList<>();
+        List<ProductChangedEvent> changes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ProductBulkItem item = operations.get(i);
+            Product current = existing.get(item.getId());
+            if (item.getOperation() != EBulkOperation.CREATE && current == null) {
+                results[i] = bulkResult(i, item, item.getId(), EBulkStatus.NOT_FOUND,
+                        "Producto no encontrado con id: " + item.getId());
+                continue;
+            }
+            Product product = switch (item.getOperation()) {
+                case CREATE -> toProduct(new ObjectId().toHexString(), item.getProduct(), now, now);
+                case UPDATE -> toProduct(current.getId(), item.getProduct(), current.getCreatedAt(), now);
+                case DELETE -> current;
+            };
+            writes.add(new BulkWrite(item.getOperation(), product,
+                    current != null ? current.getUpdatedAt() : null));
+            writeIndexes.add(i);
+            changes.add(new ProductChangedEvent(
+                    item.getOperation() == EBulkOperation.CREATE ? null : mapToDTO(current),
+                    item.getOperation() == EBulkOperation.DELETE ? null : mapToDTO(product)));
+        }
+
+        BulkWriteOutcome outcome = writes.isEmpty() ? new BulkWriteOutcome(Map.of(), Set.of())
+                : productRepository.bulkWrite(writes);
+        List<ProductChangedEvent> applied = new ArrayList<>();
+        for (int w = 0; w < writes.size(); w++) {
+            int i = writeIndexes.get(w);
+            String error = outcome.errors().get(w);
+            String id = writes.get(w).product().getId();
+            if (error != null) {
+                results[i] = bulkResult(i, operations.get(i), id, EBulkStatus.ERROR, error);
+            } else if (outcome.unmatched().contains(w)) {
+                results[i] = bulkResult(i, operations.get(i), id, EBulkStatus.CONFLICT,
+                        "El producto ha sido modificado o eliminado durante el lote");
+            } else {
+                results[i] = bulkResult(i, operations.get(i), id, EBulkStatus.OK, null);
+                applied.add(changes.get(w));
+            }
+        }
+        applied.forEach(eventPublisher::publishEvent);
+        invalidationBus.publishAll(applied);
+        categoryStats.apply(applied);
+
+        List<ProductBulkResult> resultList = List.of(results);
+        int succeeded = (int) resultList.stream().filter(result -> result.getStatus() == EBulkStatus.OK).count();
+        return ProductBulkResponse.builder()
+                .succeeded(succeeded)
+                .failed(resultList.size() - succeeded)
+                .results(resultList)
+                .build();
+    }
+
+    // Devuelve el motivo por el que la operación no es válida, o null
+    private String validateBulkItem(ProductBulkItem item) {
+        if (item.getOperation() == null) {
+            return "La operación es requerida";
+        }
+        if (item.getOperation() != EBulkOperation.CREATE && (item.getId() == null || item.getId().isBlank())) {
+            return "El id es requerido";
+        }
+        if (item.getOperation() == EBulkOperation.DELETE) {
+            return null;
+        }
+        if (item.getProduct() == null) {
+            return "El producto es requerido";
+        }
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(item.getProduct());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private ProductBulkResult bulkResult(int index, ProductBulkItem item, String id, EBulkStatus status,
+            String message) {
+        return ProductBulkResult.builder()
+                .index(index)
+                .operation(item.getOperation())
+                .id(id)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    private Product toProduct(String id, ProductRequest request, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return Product.builder()
+                .id(id)
+                .name(request.getName())
+                .description(request.getDescription())
+                .price(request.getPrice())
+                .stock(request.getStock())
+                .category(request.getCategory())
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @Override
+    public List<StockLevelDTO> reserveStock(List<StockItemRequest> items) {
+        return adjustStock(items, -1);
+    }
+
+    @Override
+    public List<StockLevelDTO> releaseStock(List<StockItemRequest> items) {
+        return adjustStock(items, 1);
+    }
+
+    // Aplica todas las líneas en una transacción: si alguna falla, no queda
+    // ninguna aplicada y no se publica ningún cambio.
+    private List<StockLevelDTO> adjustStock(List<StockItemRequest> items, int sign) {
+        // Se suman las cantidades, siempre positivas, antes de aplicar el signo:
+        // -Integer.MAX_VALUE - 1 no desborda, pero su opuesto sí
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        for (StockItemRequest item : items) {
+            try {
+                deltas.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new InvalidStockQuantityException(item.getProductId());
+            }
+        }
+        deltas.replaceAll((id, quantity) -> sign * quantity);
+
+        StockUpdate update = productRepository.incrementStocks(deltas);
+        if (update.failedId() != null) {
+            String id = update.failedId();
+            int delta = deltas.get(id);
+            Product current = productRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+            if (delta > 0) {
+                throw new InvalidStockQuantityException(id);
+            }
+            throw new InsufficientStockException(id, -delta, current.getStock() != null ? current.getStock() : 0);
+        }
+
+        List<StockLevelDTO> levels = new ArrayList<>();
+        for (Product product : update.updated()) {
+            publishStockChange(product, deltas.get(product.getId()));
+            levels.add(StockLevelDTO.builder().productId(product.getId()).stock(product.getStock()).build());
+        }
+        return levels;
+    }
+
+    private void publishStockChange(Product product, int delta) {
+        ProductDTO after = mapToDTO(product);
+        ProductDTO before = mapToDTO(product);
+        before.setStock(product.getStock() - delta);
+        publishChange(new ProductChangedEvent(before, after));
+    }
+
+    @Override
+    public List<HotProductDTO> getHotProducts(int limit) {
+        return productPopularity.hotProducts(limit).stream()
+                .map(entry -> HotProductDTO.builder().id(entry.getKey()).hits(entry.getValue()).build())
+                .collect(Collectors.toList());
+    }
+
+    // Aplica el cambio en este nodo y lo difunde al resto. El resumen por
+    // categoría solo lo actualiza el nodo de origen.
+    private void publishChange(ProductChangedEvent event) {
+        eventPublisher.publishEvent(event);
+        invalidationBus.publish(event);
+        categoryStats.apply(List.of(event));
+    }
+
+    private String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor no válido: " + cursor);
+        }
+    }
+
+    // Un valor nulo se codifica vacío y el resto con el prefijo '=', para no
+    // confundirlo con un nombre vacío o con el texto "null"
+    private String sortValueOf(String sortField, ProductDTO product) {
+        Object value = switch (sortField) {
+            case "price" -> product.getPrice();
+            case "name" -> product.getName();
+            default -> product.getCreatedAt();
+        };
+        return value == null ? "" : "=" + value;
+    }
+
+    private Object parseSortValue(String sortField, String encoded) {
+        if (encoded.isEmpty()) {
+            return null;
+        }
+        if (!encoded.startsWith("=")) {
+            throw new RuntimeException("Cursor no válido: " + encoded);
+        }
+        String value = encoded.substring(1);
+        try {
+            return switch (sortField) {
+                case "price" -> Double.valueOf(value);
+                case "name" -> value;
+                default -> LocalDateTime.parse(value);
+            };
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor no válido: " + value);
+        }
     }
 
     private ProductDTO mapToDTO(Product product) {
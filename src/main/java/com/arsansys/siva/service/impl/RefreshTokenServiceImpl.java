@@ -0,0 +1,106 @@
+package com.arsansys.siva.service.impl;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.arsansys.siva.model.entity.RefreshTokenEntity;
+import com.arsansys.siva.repository.mongo.RefreshTokenRepository;
+import com.arsansys.siva.security.jwt.TokenDigest;
+import com.arsansys.siva.service.RefreshTokenService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implementación del servicio de refresh tokens rotativos.
+ * <p>
+ * Los tokens son valores aleatorios opacos; en base de datos solo se guarda su
+ * resumen.
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh.expiration:1209600000}")
+    private long refreshExpiration;
+
+    /**
+     * Emite un refresh token que inicia una familia nueva.
+     * 
+     * @param username Nombre de usuario.
+     * @return Refresh token generado.
+     */
+    @Override
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consume un refresh token y emite el siguiente de su familia.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     * @return Rotación con el nuevo token, o null si el token no es válido.
+     */
+    @Override
+    public Rotation rotate(String refreshToken) {
+        String id = TokenDigest.sha256(refreshToken);
+        RefreshTokenEntity current = refreshTokenRepository.markUsed(id);
+        if (current == null) {
+            // Reutilización de un token ya rotado: se revoca toda la familia
+            refreshTokenRepository.findById(id).ifPresent(reused -> {
+                log.warn("Reutilización de refresh token detectada para " + reused.getUsername());
+                refreshTokenRepository.deleteByFamilyId(reused.getFamilyId());
+            });
+            return null;
+        }
+        if (current.getExpirationDate().before(new Date())) {
+            return null;
+        }
+        return new Rotation(current.getUsername(), issue(current.getUsername(), current.getFamilyId()));
+    }
+
+    /**
+     * Revoca la familia a la que pertenece un refresh token.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     */
+    @Override
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findById(TokenDigest.sha256(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.deleteByFamilyId(token.getFamilyId()));
+    }
+
+    /**
+     * Revoca todos los refresh tokens de un usuario.
+     * 
+     * @param username Nombre de usuario.
+     */
+    @Override
+    public void revokeAll(String username) {
+        refreshTokenRepository.deleteByUsername(username);
+    }
+
+    private String issue(String username, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshTokenEntity.builder()
+                .id(TokenDigest.sha256(refreshToken))
+                .familyId(familyId)
+                .username(username)
+                .expirationDate(new Date(System.currentTimeMillis() + refreshExpiration))
+                .build());
+        return refreshToken;
+    }
+}
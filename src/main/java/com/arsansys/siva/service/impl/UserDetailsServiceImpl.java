@@ -7,21 +7,25 @@ import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import com.arsansys.siva.model.entity.UserEntity;
 import com.arsansys.siva.repository.mongo.UserRepository;
+import com.arsansys.siva.security.AuthenticatedUser;
 
 
 /**
  * Servicio que implementa métodos para la gestión de usuarios y autenticación.
+ * <p>
+ * También recibe las contraseñas recifradas por Spring Security cuando un
+ * usuario inicia sesión con un hash de una política anterior.
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
         @Autowired
         private UserRepository userRepository;
@@ -30,7 +34,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
          * Carga los detalles de un usuario por su nombre de usuario.
          *
          * @param username Nombre de usuario.
-         * @return Detalles del usuario (UserDetails).
+         * @return Detalles del usuario, con la entidad cargada.
          * @throws UsernameNotFoundException Si el usuario no existe.
          */
         @Override
@@ -43,9 +47,23 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                                 .map(rol -> new SimpleGrantedAuthority("ROLE_".concat(rol.getName().name())))
                                 .collect(Collectors.toSet());
 
-                return new User(userEntity.getUsername(), userEntity.getPassword(), userEntity.getActive(), true, true,
-                                true,
-                                authorities);
+                return new AuthenticatedUser(userEntity, authorities);
+        }
+
+        /**
+         * Guarda la contraseña recifrada con la política actual tras un inicio de
+         * sesión correcto.
+         *
+         * @param user        Detalles del usuario autenticado.
+         * @param newPassword Contraseña cifrada con la política actual.
+         * @return Detalles del usuario con la nueva contraseña.
+         */
+        @Override
+        public UserDetails updatePassword(UserDetails user, String newPassword) {
+                UserEntity userEntity = ((AuthenticatedUser) user).getUserEntity();
+                userRepository.updatePassword(userEntity.getId(), newPassword);
+                userEntity.setPassword(newPassword);
+                return new AuthenticatedUser(userEntity, user.getAuthorities());
         }
 
 }
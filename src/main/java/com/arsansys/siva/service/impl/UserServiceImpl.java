@@ -1,6 +1,7 @@
 package com.arsansys.siva.service.impl;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,6 +14,8 @@ import com.arsansys.siva.model.entity.UserEntity;
 import com.arsansys.siva.model.entity.jwt.JwtResponse;
 import com.arsansys.siva.repository.mongo.UserRepository;
 import com.arsansys.siva.security.jwt.JwtUtils;
+import com.arsansys.siva.security.password.PasswordHashingRejectedException;
+import com.arsansys.siva.service.RefreshTokenService;
 import com.arsansys.siva.service.UserService;
 
 
@@ -30,6 +33,8 @@ public class UserServiceImpl implements UserService {
     private JwtUtils jwtUtils;
     @Autowired
     private UserDetailsServiceImpl userDetailsServiceImpl;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
 
     /**
      * Obtiene todos los usuarios.
@@ -60,7 +65,8 @@ public class UserServiceImpl implements UserService {
             userRepository.save(userEntity);
 
             // Generate JWT token
-            String token = jwtUtils.generateAccesToken(userEntity.getUsername());
+            String token = jwtUtils.generateAccesToken(userEntity);
+            String refreshToken = refreshTokenService.issue(userEntity.getUsername());
 
             // Authenticate user in the security context
             UserDetails userDetails = userDetailsServiceImpl.loadUserByUsername(userEntity.getUsername());
@@ -69,7 +75,9 @@ public class UserServiceImpl implements UserService {
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
             // Return token in response
-            return new JwtResponse(token, userEntity.getId());
+            return new JwtResponse(token, refreshToken, userEntity.getId());
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error creating user: " + e.getMessage());
         }
@@ -110,21 +118,101 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Actualiza un usuario existente.
+     * <p>
+     * Si cambian el rol o el estado del usuario, los tokens ya emitidos dejan de
+     * confiar en sus claims y se revalidan en la siguiente petición. Si el
+     * usuario se desactiva, además se revocan todos sus tokens.
      * 
      * @param userEntity Entidad de usuario a actualizar.
      */
     @Override
     public void updateUser(UserEntity userEntity) {
         try {
-            // Check if the user exists
-            if (!userRepository.existsById(userEntity.getId())) {
+            // The token version is never part of the update: only $inc changes it
+            UserEntity current = userRepository.updateUserFields(userEntity);
+            if (current == null) {
                 throw new RuntimeException("User not found");
             }
 
-            userRepository.save(userEntity);
+            if (Boolean.TRUE.equals(current.getActive()) && !Boolean.TRUE.equals(userEntity.getActive())) {
+                Integer tokenVersion = userRepository.incrementTokenVersion(userEntity.getUsername());
+                if (tokenVersion != null) {
+                    jwtUtils.revokeUserTokens(current.getUsername(), tokenVersion);
+                }
+            }
+            if (!Objects.equals(current.getRol(), userEntity.getRol())
+                    || !Objects.equals(current.getActive(), userEntity.getActive())) {
+                jwtUtils.invalidateUserClaims(current.getUsername());
+            }
         } catch (Exception e) {
             throw new RuntimeException("Error updating user: " + e.getMessage());
         }
     }
 
+    /**
+     * Guarda el token de Google de un usuario con una actualización de un solo
+     * campo.
+     * 
+     * @param id          ID del usuario.
+     * @param googleToken Token de Google.
+     */
+    @Override
+    public void updateGoogleToken(String id, String googleToken) {
+        userRepository.updateGoogleToken(id, googleToken);
+    }
+
+    /**
+     * Revoca todos los tokens emitidos para un usuario incrementando su versión
+     * de tokens.
+     * 
+     * @param username Nombre de usuario.
+     */
+    @Override
+    public void revokeAllTokens(String username) {
+        Integer tokenVersion = userRepository.incrementTokenVersion(username);
+        if (tokenVersion == null) {
+            throw new RuntimeException("User not found");
+        }
+        jwtUtils.revokeUserTokens(username, tokenVersion);
+        refreshTokenService.revokeAll(username);
+    }
+
+    /**
+     * Renueva la sesión de un usuario a partir de un refresh token, rotándolo.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     * @return Respuesta JWT con los nuevos tokens, o null si el refresh token no
+     *         es válido o el usuario ya no está activo.
+     */
+    @Override
+    public JwtResponse refreshSession(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        if (rotation == null) {
+            return null;
+        }
+        UserEntity userEntity = getUserByUsername(rotation.username());
+        if (userEntity == null || !Boolean.TRUE.equals(userEntity.getActive())) {
+            refreshTokenService.revoke(rotation.refreshToken());
+            return null;
+        }
+        return new JwtResponse(jwtUtils.generateAccesToken(userEntity), rotation.refreshToken(),
+                userEntity.getId());
+    }
+
+    /**
+     * Cierra la sesión asociada a un refresh token revocando su familia. El
+     * token de acceso, si sigue siendo válido, pasa a la lista de revocados
+     * para que no pueda usarse hasta su expiración.
+     * 
+     * @param refreshToken Refresh token presentado por el cliente.
+     * @param accessToken  Token de acceso presentado, o null si no hay.
+     */
+    @Override
+    public void logout(String refreshToken, String accessToken) {
+        refreshTokenService.revoke(refreshToken);
+        if (accessToken != null && jwtUtils.validateToken(accessToken) != null) {
+            jwtUtils.invalidateToken(accessToken);
+        }
+    }
+
 }
@@ -0,0 +1,63 @@
+package com.arsansys.siva.service.invalidation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bus de invalidación dentro de la propia JVM.
+ * <p>
+ * Cada contexto de Spring que arranca con esta implementación se registra como
+ * un nodo, de modo que varios contextos en el mismo proceso (por ejemplo, en
+ * pruebas) se comportan como un clúster. Con un único contexto no hay nadie a
+ * quien avisar y publicar no hace nada.
+ * <p>
+ * Solo se activa de forma explícita con {@code siva.invalidation.bus=memory}:
+ * en un despliegue con varias instancias los demás nodos no se enteran de los
+ * cambios y sirven datos caducados, por eso se avisa al arrancar.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "siva.invalidation.bus", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryInvalidationBus implements InvalidationBus {
+
+    private static final List<InMemoryInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void join() {
+        log.warn("Bus de invalidación en memoria activo: las invalidaciones no llegan a otros procesos. "
+                + "No usar con más de una instancia (siva.invalidation.bus=mongo)");
+        NODES.add(this);
+    }
+
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        for (InMemoryInvalidationBus node : NODES) {
+            if (node != this) {
+                node.eventPublisher.publishEvent(event);
+            }
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.arsansys.siva.service.invalidation;
+
+import java.util.List;
+
+/**
+ * Canal de difusión de invalidaciones entre los nodos de la aplicación.
+ * <p>
+ * El nodo que hace un cambio lo aplica primero en local y después lo publica
+ * en el bus. El resto de nodos reciben el evento y lo vuelven a publicar como
+ * evento de Spring en su propio contexto, donde lo atienden los mismos
+ * {@code @EventListener} que mantienen las cachés locales. El nodo de origen
+ * no recibe sus propios mensajes.
+ * <p>
+ * La implementación se elige con {@code siva.invalidation.bus}: {@code mongo}
+ * (por defecto, colección limitada) o {@code memory} (un solo proceso, para
+ * desarrollo y pruebas).
+ */
+public interface InvalidationBus {
+
+    /**
+     * Difunde un evento al resto de nodos.
+     *
+     * @param event Evento a difundir
+     */
+    void publish(InvalidationEvent event);
+
+    /**
+     * Difunde varios eventos al resto de nodos.
+     *
+     * @param events Eventos a difundir
+     */
+    default void publishAll(List<? extends InvalidationEvent> events) {
+        events.forEach(this::publish);
+    }
+
+    /**
+     * Obtiene el identificador de este nodo en el bus.
+     *
+     * @return Identificador del nodo
+     */
+    String getNodeId();
+}
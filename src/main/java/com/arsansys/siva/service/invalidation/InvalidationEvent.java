@@ -0,0 +1,11 @@
+package com.arsansys.siva.service.invalidation;
+
+/**
+ * Marca los eventos que se difunden a todos los nodos a través del
+ * {@link InvalidationBus}.
+ * <p>
+ * Las implementaciones deben ser serializables con Jackson. Solo se aceptan
+ * mensajes remotos cuyo tipo implemente esta interfaz.
+ */
+public interface InvalidationEvent {
+}
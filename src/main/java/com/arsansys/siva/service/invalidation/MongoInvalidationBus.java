@@ -0,0 +1,220 @@
+package com.arsansys.siva.service.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Sorts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus de invalidación sobre una colección limitada de MongoDB.
+ * <p>
+ * Publicar es insertar un documento con el tipo y el contenido JSON del evento.
+ * Cada nodo sigue la colección con un cursor {@code TailableAwait} en orden
+ * natural (el de inserción en el servidor), en un hilo propio, y vuelve a
+ * publicar como evento de Spring los mensajes de otros nodos. La posición no
+ * se filtra por {@code _id}: los ObjectId los generan los clientes con su
+ * propio reloj y no están ordenados entre nodos. En su lugar, el cursor
+ * recorre la colección desde el principio y descarta los documentos hasta
+ * encontrar el último procesado (al arrancar, el documento de inicio de este
+ * nodo). Si ese documento ya se ha descartado de la colección limitada, se
+ * vuelven a entregar todos los mensajes presentes; las invalidaciones son
+ * idempotentes. Si el cursor se cierra (caída del primario, red), se reabre
+ * de la misma forma. Como la colección es limitada, los mensajes antiguos se
+ * descartan solos.
+ */
+@Component
+@ConditionalOnProperty(name = "siva.invalidation.bus", havingValue = "mongo", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class MongoInvalidationBus implements InvalidationBus {
+
+    private static final String FIELD_ORIGIN = "origin";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_PAYLOAD = "payload";
+    private static final String TYPE_START = "start";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${siva.invalidation.collection:invalidation_bus}")
+    private String collectionName;
+
+    @Value("${siva.invalidation.capped-size-bytes:16777216}")
+    private long cappedSizeBytes;
+
+    @Value("${siva.invalidation.retry-ms:1000}")
+    private long retryMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private MongoCollection<Document> collection;
+
+    private Thread tailer;
+
+    private volatile boolean running;
+
+    /**
+     * Crea la colección limitada si no existe y arranca el hilo que la sigue.
+     */
+    @PostConstruct
+    public void start() {
+        if (!mongoTemplate.collectionExists(collectionName)) {
+            try {
+                mongoTemplate.getDb().createCollection(collectionName,
+                        new CreateCollectionOptions().capped(true).sizeInBytes(cappedSizeBytes));
+            } catch (MongoException e) {
+                // Otro nodo la ha creado a la vez
+                log.debug("Colección {} ya creada: {}", collectionName, e.getMessage());
+            }
+        }
+        collection = mongoTemplate.getCollection(collectionName);
+
+        // Un cursor tailable sobre una colección vacía se cierra al momento
+        Document start = new Document(FIELD_ORIGIN, nodeId).append(FIELD_TYPE, TYPE_START)
+                .append("createdAt", new Date());
+        collection.insertOne(start);
+
+        running = true;
+        tailer = new Thread(() -> tail(start.getObjectId("_id")), "invalidation-bus-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+        log.info("Bus de invalidación MongoDB iniciado en '{}' (nodo {})", collectionName, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        try {
+            collection.insertOne(toMessage(event));
+        } catch (JsonProcessingException | MongoException e) {
+            // El resto de nodos verán el cambio, como tarde, al caducar sus cachés
+            log.error("No se ha podido difundir {}: {}", event.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void publishAll(List<? extends InvalidationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            List<Document> messages = new ArrayList<>(events.size());
+            for (InvalidationEvent event : events) {
+                messages.add(toMessage(event));
+            }
+            collection.insertMany(messages);
+        } catch (JsonProcessingException | MongoException e) {
+            log.error("No se han podido difundir {} eventos: {}", events.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private Document toMessage(InvalidationEvent event) throws JsonProcessingException {
+        return new Document(FIELD_ORIGIN, nodeId)
+                .append(FIELD_TYPE, event.getClass().getName())
+                .append(FIELD_PAYLOAD, objectMapper.writeValueAsString(event))
+                .append("createdAt", new Date());
+    }
+
+    private void tail(ObjectId lastSeen) {
+        while (running) {
+            try (MongoCursor<Document> cursor = collection.find()
+                    .sort(Sorts.ascending("$natural"))
+                    .cursorType(CursorType.TailableAwait)
+                    .iterator()) {
+                boolean caughtUp = false;
+                while (running && cursor.getServerCursor() != null) {
+                    Document message = cursor.tryNext();
+                    if (message == null) {
+                        if (!caughtUp && lastSeen != null) {
+                            // Fin de la colección sin encontrar el último mensaje
+                            // procesado: se ha descartado y se reabre desde el principio
+                            log.warn("Bus de invalidación: posición perdida, se reentregan los mensajes presentes");
+                            lastSeen = null;
+                            break;
+                        }
+                        continue;
+                    }
+                    ObjectId id = message.getObjectId("_id");
+                    if (!caughtUp && lastSeen != null) {
+                        // Se descartan los mensajes hasta el último procesado, incluido
+                        caughtUp = id.equals(lastSeen);
+                        continue;
+                    }
+                    caughtUp = true;
+                    lastSeen = id;
+                    if (!nodeId.equals(message.getString(FIELD_ORIGIN))) {
+                        deliver(message);
+                    }
+                }
+            } catch (MongoException e) {
+                if (running) {
+                    log.warn("Cursor del bus de invalidación cerrado, reintentando: {}", e.getMessage());
+                }
+            } catch (IllegalStateException e) {
+                // Cliente cerrado durante el apagado
+                if (running) {
+                    log.warn("Bus de invalidación detenido: {}", e.getMessage());
+                }
+                return;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(retryMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(Document message) {
+        String type = message.getString(FIELD_TYPE);
+        if (TYPE_START.equals(type)) {
+            return;
+        }
+        try {
+            Class<?> eventClass = Class.forName(type, false, getClass().getClassLoader());
+            if (!InvalidationEvent.class.isAssignableFrom(eventClass)) {
+                log.warn("Tipo de mensaje de invalidación no permitido: {}", type);
+                return;
+            }
+            eventPublisher.publishEvent(objectMapper.readValue(message.getString(FIELD_PAYLOAD), eventClass));
+        } catch (ClassNotFoundException | JsonProcessingException e) {
+            log.error("Mensaje de invalidación no válido ({}): {}", type, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error aplicando invalidación remota {}: {}", type, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.arsansys.siva.service.search;
+
+import com.arsansys.siva.model.dto.CategoryFacetDTO;
+import com.arsansys.siva.model.dto.PriceBucketDTO;
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.entity.Product;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import com.mongodb.client.model.Filters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumen por categoría de los productos para la barra lateral de la tienda:
+ * número de productos, cuántos tienen stock, precio mínimo, máximo y suma, y
+ * un histograma de precios por tramos.
+ * <p>
+ * Cada categoría es un documento de la colección 'product_category_stats'. El
+ * nodo que cambia un producto aplica la diferencia con $inc, $min y $max (los
+ * demás nodos no, para no contarla dos veces). Como $min y $max no pueden
+ * retroceder al quitar un producto, y las sumas de coma flotante acumulan
+ * error, un pipeline de agregación recalcula todo el resumen al arrancar y
+ * cada {@code products.facets.reconcile-interval-ms}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryStats {
+
+    private static final String COLLECTION = "product_category_stats";
+    private static final String BUCKET_PREFIX = "b";
+
+    private static final String LOCK_COLLECTION = "locks";
+    private static final String RECONCILE_LOCK = "product_category_stats.reconcile";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Por defecto el turno dura lo mismo que el intervalo entre reconciliaciones
+    @Value("${products.facets.reconcile-lease-ms:${products.facets.reconcile-interval-ms:3600000}}")
+    private long reconcileLeaseMs;
+
+    // Límites de los tramos de precio: [0, 10), [10, 25), ..., [1000, ∞)
+    @Value("${products.facets.price-buckets:10,25,50,100,250,500,1000}")
+    private List<Double> bucketBounds;
+
+    /**
+     * Aplica al resumen los cambios de producto hechos en este nodo.
+     *
+     * @param events Cambios realizados
+     */
+    public void apply(List<ProductChangedEvent> events) {
+        Map<String, Delta> deltas = new HashMap<>();
+        for (ProductChangedEvent event : events) {
+            addDelta(deltas, event.before(), -1);
+            addDelta(deltas, event.after(), 1);
+        }
+        deltas.values().removeIf(Delta::isEmpty);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        deltas.forEach((category, delta) -> {
+            Update update = new Update()
+                    .inc("count", delta.count)
+                    .inc("inStock", delta.inStock)
+                    .inc("priced", delta.priced)
+                    .inc("priceSum", delta.priceSum)
+                    .currentDate("updatedAt");
+            delta.buckets.forEach((bucket, count) -> update.inc("histogram." + bucket, count));
+            if (delta.minPrice != null) {
+                update.min("priceMin", delta.minPrice).max("priceMax", delta.maxPrice);
+            }
+            bulk.upsert(new Query(Criteria.where("_id").is(category)), update);
+        });
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // La próxima reconciliación corrige el resumen
+            log.error("No se ha podido actualizar el resumen de categorías: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula el resumen de todas las categorías a partir de los productos.
+     * Solo lo hace el nodo que tiene el turno en la colección 'locks'; el turno
+     * dura {@code products.facets.reconcile-lease-ms} y su titular lo renueva
+     * en cada ejecución.
+     * <p>
+     * Todas las fechas son del servidor: apply() escribe {@code updatedAt} con
+     * $currentDate y la reconciliación toma la hora del servidor al empezar.
+     * Una categoría que ha recibido una diferencia después de ese momento no
+     * se reemplaza, porque el recuento leído podría no incluirla; se corrige
+     * en la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${products.facets.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        Date runStart = serverTime();
+        if (!acquireReconcileLease(runStart)) {
+            log.debug("Reconciliación del resumen de categorías en curso en otro nodo");
+            return;
+        }
+        Document histogram = new Document();
+        for (int i = 0; i <= bucketBounds.size(); i++) {
+            List<Document> conditions = new ArrayList<>();
+            conditions.add(new Document("$isNumber", "$price"));
+            if (i > 0) {
+                conditions.add(new Document("$gte", List.of("$price", bucketBounds.get(i - 1))));
+            }
+            if (i < bucketBounds.size()) {
+                conditions.add(new Document("$lt", List.of("$price", bucketBounds.get(i))));
+            }
+            histogram.append(BUCKET_PREFIX + i, new Document("$sum",
+                    new Document("$cond", List.of(new Document("$and", conditions), 1, 0))));
+        }
+        Document group = new Document("_id", "$category")
+                .append("count", new Document("$sum", 1))
+                .append("inStock", new Document("$sum",
+                        new Document("$cond", List.of(new Document("$gt", List.of("$stock", 0)), 1, 0))))
+                .append("priced", new Document("$sum",
+                        new Document("$cond", List.of(new Document("$isNumber", "$price"), 1, 0))))
+                .append("priceSum", new Document("$sum", "$price"))
+                .append("priceMin", new Document("$min", "$price"))
+                .append("priceMax", new Document("$max", "$price"));
+        histogram.forEach(group::append);
+
+        // El resultado se escribe en el servidor con $merge: cada categoría se
+        // reemplaza de forma atómica, sin pasar los documentos por el nodo
+        Document buckets = new Document();
+        for (int i = 0; i <= bucketBounds.size(); i++) {
+            buckets.append(BUCKET_PREFIX + i, "$" + BUCKET_PREFIX + i);
+        }
+        Document summary = new Document("count", 1)
+                .append("inStock", 1)
+                .append("priced", 1)
+                .append("priceSum", 1)
+                .append("priceMin", 1)
+                .append("priceMax", 1)
+                .append("histogram", buckets)
+                .append("updatedAt", new Document("$literal", runStart));
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("category", new Document("$ne", null))),
+                new Document("$group", group),
+                new Document("$project", summary),
+                new Document("$merge", new Document("into", COLLECTION)
+                        .append("on", "_id")
+                        .append("whenMatched", List.of(new Document("$replaceWith", new Document("$cond",
+                                List.of(new Document("$lt", List.of("$updatedAt", runStart)), "$$new", "$$ROOT")))))
+                        .append("whenNotMatched", "insert")));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .aggregate(pipeline)
+                .toCollection();
+
+        // Las categorías que ya no tienen productos no salen del $merge y
+        // conservan una fecha anterior; las que ha tocado apply() mientras
+        // tanto tienen una posterior y se mantienen
+        long removed = mongoTemplate.getCollection(COLLECTION)
+                .deleteMany(Filters.lt("updatedAt", runStart))
+                .getDeletedCount();
+        log.info("Resumen de categorías reconciliado ({} categorías sin productos eliminadas)", removed);
+    }
+
+    // Toma o renueva el turno de reconciliación. Otro nodo con el turno vigente
+    // hace que el upsert choque con la clave _id y no se obtiene.
+    private boolean acquireReconcileLease(Date now) {
+        Query query = new Query(Criteria.where("_id").is(RECONCILE_LOCK)
+                .orOperator(Criteria.where("expiresAt").lt(now), Criteria.where("owner").is(nodeId)));
+        Update update = new Update()
+                .set("owner", nodeId)
+                .set("expiresAt", new Date(now.getTime() + reconcileLeaseMs));
+        try {
+            FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+            return mongoTemplate.findAndModify(query, update, options, Document.class, LOCK_COLLECTION) != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Hora del servidor, la misma referencia que $currentDate en apply()
+    private Date serverTime() {
+        return mongoTemplate.executeCommand(new Document("hello", 1)).getDate("localTime");
+    }
+
+    /**
+     * Obtiene el resumen de todas las categorías con algún producto.
+     *
+     * @return Resumen por categoría, ordenado por nombre de categoría
+     */
+    public List<CategoryFacetDTO> getFacets() {
+        List<CategoryFacetDTO> facets = new ArrayList<>();
+        for (Document summary : mongoTemplate.getCollection(COLLECTION)
+                .find(Filters.gt("count", 0)).sort(new Document("_id", 1))) {
+            long priced = number(summary.get("priced")).longValue();
+            Document buckets = summary.get("histogram", Document.class);
+            List<PriceBucketDTO> histogram = new ArrayList<>();
+            for (int i = 0; i <= bucketBounds.size(); i++) {
+                histogram.add(PriceBucketDTO.builder()
+                        .from(i == 0 ? 0.0 : bucketBounds.get(i - 1))
+                        .to(i < bucketBounds.size() ? bucketBounds.get(i) : null)
+                        .count(buckets != null ? number(buckets.get(BUCKET_PREFIX + i)).longValue() : 0L)
+                        .build());
+            }
+            facets.add(CategoryFacetDTO.builder()
+                    .category(summary.getString("_id"))
+                    .count(number(summary.get("count")).longValue())
+                    .inStock(number(summary.get("inStock")).longValue())
+                    .minPrice(priced > 0 ? number(summary.get("priceMin")).doubleValue() : null)
+                    .maxPrice(priced > 0 ? number(summary.get("priceMax")).doubleValue() : null)
+                    .avgPrice(priced > 0 ? number(summary.get("priceSum")).doubleValue() / priced : null)
+                    .histogram(histogram)
+                    .build());
+        }
+        return facets;
+    }
+
+    private void addDelta(Map<String, Delta> deltas, ProductDTO product, int sign) {
+        if (product == null || product.getCategory() == null) {
+            return;
+        }
+        Delta delta = deltas.computeIfAbsent(product.getCategory(), category -> new Delta());
+        delta.count += sign;
+        if (product.getStock() != null && product.getStock() > 0) {
+            delta.inStock += sign;
+        }
+        Double price = product.getPrice();
+        if (price != null) {
+            delta.priced += sign;
+            delta.priceSum += sign * price;
+            delta.buckets.merge(BUCKET_PREFIX + bucketOf(price), (long) sign, Long::sum);
+            if (sign > 0) {
+                delta.minPrice = delta.minPrice == null ? price : Math.min(delta.minPrice, price);
+                delta.maxPrice = delta.maxPrice == null ? price : Math.max(delta.maxPrice, price);
+            }
+        }
+    }
+
+    private int bucketOf(double price) {
+        int bucket = 0;
+        while (bucket < bucketBounds.size() && price >= bucketBounds.get(bucket)) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number number ? number : 0;
+    }
+
+    // Diferencia acumulada de una categoría
+    private static final class Delta {
+        private long count;
+        private long inStock;
+        private long priced;
+        private double priceSum;
+        private Double minPrice;
+        private Double maxPrice;
+        private final Map<String, Long> buckets = new HashMap<>();
+
+        // Un cambio que no altera ningún contador (por ejemplo, un stock que
+        // sigue siendo positivo) no se escribe: su precio ya estaba incluido
+        // en el mínimo y el máximo.
+        private boolean isEmpty() {
+            buckets.values().removeIf(count -> count == 0);
+            return count == 0 && inStock == 0 && priced == 0 && priceSum == 0 && buckets.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.arsansys.siva.service.search;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductSuggestionDTO;
+import com.arsansys.siva.repository.mongo.ProductRepository;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de nombres de producto para autocompletar.
+ * <p>
+ * Cada nombre se normaliza (minúsculas, sin acentos, espacios simples) y se
+ * guarda una clave por cada palabra, desde esa palabra hasta el final, en un
+ * mapa ordenado. Así "zapatilla running" se encuentra tanto con "zap" como con
+ * "run", y una búsqueda es un recorrido por rango del mapa, sin consultar
+ * MongoDB.
+ * <p>
+ * Se construye al arrancar recorriendo la colección y se mantiene al día con
+ * los {@link ProductChangedEvent}, locales o recibidos de otros nodos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductNameIndex {
+
+    // Separa la clave normalizada del id para que las claves sean únicas
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final ProductRepository productRepository;
+
+    private final ConcurrentSkipListMap<String, ProductSuggestionDTO> entries = new ConcurrentSkipListMap<>();
+
+    // Claves de cada producto, para poder quitarlas al cambiar o borrar
+    private final ConcurrentHashMap<String, List<String>> keysById = new ConcurrentHashMap<>();
+
+    // Productos cambiados o borrados mientras se reconstruye el índice: el
+    // evento es más reciente que lo que lee el recorrido, que los salta
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuilding;
+
+    /**
+     * Construye el índice a partir de todos los productos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        long start = System.currentTimeMillis();
+        try (Stream<ProductDTO> products = productRepository.streamByCategoryAndUpdatedSince(null, null)) {
+            products.forEach(product -> index(product.getId(), product.getName(), product.getCategory(), true));
+        } finally {
+            rebuilding = false;
+            changedDuringRebuild.clear();
+        }
+        log.info("Índice de autocompletado construido: {} productos en {} ms", keysById.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Aplica un cambio de producto al índice.
+     *
+     * @param event Cambio realizado
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductDTO before = event.before();
+        ProductDTO after = event.after();
+        if (after == null) {
+            remove(event.productId());
+        } else if (before == null || !Objects.equals(before.getName(), after.getName())
+                || !Objects.equals(before.getCategory(), after.getCategory())) {
+            // Un cambio de precio o de stock no toca el índice
+            index(after.getId(), after.getName(), after.getCategory(), false);
+        }
+    }
+
+    /**
+     * Obtiene los productos cuyo nombre contiene una palabra que empieza por el
+     * texto indicado.
+     *
+     * @param prefix Texto escrito por el usuario
+     * @param limit  Número máximo de sugerencias
+     * @return Sugerencias en orden alfabético, sin repetir productos
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Map<String, ProductSuggestionDTO> found = new LinkedHashMap<>();
+        for (ProductSuggestionDTO suggestion : entries
+                .subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+            found.putIfAbsent(suggestion.getId(), suggestion);
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private void index(String id, String name, String category, boolean fromRebuild) {
+        ProductSuggestionDTO suggestion = ProductSuggestionDTO.builder().id(id).name(name).category(category).build();
+        // compute serializa los cambios del mismo producto, así que la marca de
+        // cambio y su comprobación no se pueden cruzar
+        keysById.compute(id, (key, previousKeys) -> {
+            if (fromRebuild && changedDuringRebuild.contains(id)) {
+                return previousKeys;
+            }
+            if (!fromRebuild && rebuilding) {
+                changedDuringRebuild.add(id);
+            }
+            if (previousKeys != null) {
+                previousKeys.forEach(entries::remove);
+            }
+            List<String> keys = keysFor(id, name);
+            keys.forEach(entryKey -> entries.put(entryKey, suggestion));
+            return keys;
+        });
+    }
+
+    private void remove(String id) {
+        keysById.compute(id, (key, previousKeys) -> {
+            if (rebuilding) {
+                changedDuringRebuild.add(id);
+            }
+            if (previousKeys != null) {
+                previousKeys.forEach(entries::remove);
+            }
+            return null;
+        });
+    }
+
+    private static List<String> keysFor(String id, String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        int start = 0;
+        while (start >= 0) {
+            keys.add(normalized.substring(start) + KEY_SEPARATOR + id);
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = MARKS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
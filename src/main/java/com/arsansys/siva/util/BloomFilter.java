@@ -0,0 +1,114 @@
+package com.arsansys.siva.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para cadenas de texto.
+ * <p>
+ * Responde "seguro que no está" o "puede que esté" usando un array de bits de
+ * tamaño fijo. Nunca produce falsos negativos; la tasa de falsos positivos
+ * depende del número de elementos esperado y de la probabilidad configurada.
+ * Los elementos no se pueden eliminar: para purgar hay que construir un filtro
+ * nuevo.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    /**
+     * Crea un filtro dimensionado para el número de elementos y la tasa de falsos
+     * positivos indicados.
+     *
+     * @param expectedInsertions     Número de elementos esperado.
+     * @param falsePositiveProbability Probabilidad de falso positivo (0 &lt; p &lt; 1).
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        int n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveProbability, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    /**
+     * Añade un elemento al filtro.
+     *
+     * @param value Elemento a añadir.
+     */
+    public void put(String value) {
+        long hash = murmur64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int combined = h1 + i * h2;
+            int index = (combined & Integer.MAX_VALUE) % numBits;
+            setBit(index);
+        }
+    }
+
+    /**
+     * Indica si el elemento puede estar en el filtro.
+     *
+     * @param value Elemento a comprobar.
+     * @return false si el elemento seguro que no se ha añadido, true si puede
+     *         haberse añadido.
+     */
+    public boolean mightContain(String value) {
+        long hash = murmur64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int combined = h1 + i * h2;
+            int index = (combined & Integer.MAX_VALUE) % numBits;
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBit(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // Variante de 64 bits de MurmurHash3 (fmix64 sobre bloques de 8 bytes)
+    static long murmur64(String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        long h = 0x9E3779B97F4A7C15L ^ data.length;
+        int i = 0;
+        for (; i + 8 <= data.length; i += 8) {
+            long k = 0;
+            for (int j = 7; j >= 0; j--) {
+                k = (k << 8) | (data[i + j] & 0xFF);
+            }
+            k *= 0x87C37B91114253D5L;
+            k = Long.rotateLeft(k, 31);
+            k *= 0x4CF5AD432745937FL;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+        }
+        long tail = 0;
+        for (int j = data.length - 1; j >= i; j--) {
+            tail = (tail << 8) | (data[j] & 0xFF);
+        }
+        h ^= tail * 0x87C37B91114253D5L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,113 @@
+package com.arsansys.siva.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador aproximado de frecuencias (count-min sketch) con envejecimiento.
+ * <p>
+ * Estima cuántas veces se ha visto cada clave con memoria fija: nunca
+ * subestima, y la sobreestimación depende de la anchura de la tabla. Tras un
+ * número de incrementos proporcional a la anchura, todos los contadores se
+ * dividen entre dos, de modo que las claves que dejan de pedirse pierden peso
+ * y la frecuencia refleja el tráfico reciente.
+ */
+public class CountMinSketch {
+
+    private static final int DEPTH = 4;
+
+    // Incrementos entre envejecimientos, por cada columna de la tabla
+    private static final int SAMPLE_FACTOR = 10;
+
+    private final AtomicIntegerArray counters;
+    private final int widthMask;
+    private final long sampleSize;
+    private final AtomicLong additions = new AtomicLong();
+    private final Runnable onAge;
+
+    /**
+     * Crea un sketch dimensionado para el número de claves distintas esperado.
+     *
+     * @param expectedKeys Número de claves distintas esperado.
+     * @param onAge        Acción a ejecutar tras cada envejecimiento, o null.
+     */
+    public CountMinSketch(int expectedKeys, Runnable onAge) {
+        int width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+        this.widthMask = width - 1;
+        this.sampleSize = (long) SAMPLE_FACTOR * width;
+        this.onAge = onAge;
+    }
+
+    /**
+     * Suma una aparición de la clave.
+     *
+     * @param key Clave.
+     * @return Frecuencia estimada tras el incremento.
+     */
+    public int increment(String key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Suma varias apariciones de la clave.
+     *
+     * @param key   Clave.
+     * @param count Número de apariciones.
+     * @return Frecuencia estimada tras el incremento.
+     */
+    public int add(String key, int count) {
+        long hash = BloomFilter.murmur64(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            int value = counters.accumulateAndGet(index, count, CountMinSketch::saturatedAdd);
+            estimate = Math.min(estimate, value);
+        }
+        if (additions.addAndGet(count) >= sampleSize) {
+            age();
+        }
+        return estimate;
+    }
+
+    /**
+     * Estima la frecuencia de una clave.
+     *
+     * @param key Clave.
+     * @return Frecuencia estimada.
+     */
+    public int estimate(String key) {
+        long hash = BloomFilter.murmur64(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    // Los incrementos concurrentes con el envejecimiento pueden perderse; el
+    // error es del mismo orden que el propio sketch.
+    private synchronized void age() {
+        if (additions.get() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        additions.set(additions.get() >>> 1);
+        if (onAge != null) {
+            onAge.run();
+        }
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+    }
+
+    private static int saturatedAdd(int current, int delta) {
+        int sum = current + delta;
+        return sum < 0 ? Integer.MAX_VALUE : sum;
+    }
+}
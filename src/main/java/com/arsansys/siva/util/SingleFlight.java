@@ -0,0 +1,76 @@
+package com.arsansys.siva.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las llamadas concurrentes con la misma clave en una sola ejecución.
+ * <p>
+ * El primer hilo que pide una clave ejecuta la carga; los que llegan mientras
+ * sigue en curso esperan y reciben el mismo resultado, o la misma excepción si
+ * falla. Al terminar, la clave se libera y la siguiente petición vuelve a
+ * cargar: no es una caché.
+ *
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del resultado
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Ejecuta la carga de una clave, o espera a la que ya está en curso.
+     *
+     * @param key    Clave
+     * @param loader Carga a ejecutar si no hay otra en curso para la clave
+     * @return Resultado de la carga
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Obtiene el número de llamadas que se han resuelto esperando a otra en
+     * lugar de ejecutar su propia carga.
+     *
+     * @return Llamadas agrupadas desde la creación
+     */
+    public long coalescedCalls() {
+        return coalesced.sum();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.arsansys.siva.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conjunto acotado de las claves más frecuentes (heavy hitters).
+ * <p>
+ * Se alimenta con las frecuencias estimadas por un {@link CountMinSketch}: una
+ * clave entra si hay hueco o si su frecuencia supera a la menor del conjunto,
+ * a la que sustituye. La comprobación habitual (clave poco frecuente) no toma
+ * el cerrojo.
+ */
+public class TopK {
+
+    private final int capacity;
+    private final Map<String, Integer> counts = new HashMap<>();
+    private volatile int minCount;
+
+    /**
+     * Crea el conjunto con la capacidad indicada.
+     *
+     * @param capacity Número máximo de claves.
+     */
+    public TopK(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Registra la frecuencia actual de una clave.
+     *
+     * @param key   Clave.
+     * @param count Frecuencia estimada.
+     */
+    public void offer(String key, int count) {
+        if (count <= minCount) {
+            return;
+        }
+        synchronized (this) {
+            Integer previous = counts.get(key);
+            if (previous != null) {
+                if (count > previous) {
+                    counts.put(key, count);
+                    if (previous == minCount) {
+                        updateMinCount();
+                    }
+                }
+                return;
+            }
+            if (counts.size() < capacity) {
+                counts.put(key, count);
+                updateMinCount();
+                return;
+            }
+            String weakest = null;
+            int weakestCount = Integer.MAX_VALUE;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                if (entry.getValue() < weakestCount) {
+                    weakest = entry.getKey();
+                    weakestCount = entry.getValue();
+                }
+            }
+            if (count > weakestCount) {
+                counts.remove(weakest);
+                counts.put(key, count);
+                updateMinCount();
+            }
+        }
+    }
+
+    /**
+     * Divide entre dos todas las frecuencias, igual que el sketch al envejecer.
+     */
+    public synchronized void age() {
+        counts.replaceAll((key, count) -> count >>> 1);
+        counts.values().removeIf(count -> count == 0);
+        updateMinCount();
+    }
+
+    /**
+     * Obtiene las claves más frecuentes, de mayor a menor.
+     *
+     * @param limit Número máximo de claves.
+     * @return Pares clave-frecuencia ordenados por frecuencia descendente.
+     */
+    public synchronized List<Map.Entry<String, Integer>> top(int limit) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        counts.forEach((key, count) -> entries.add(Map.entry(key, count)));
+        entries.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    // Mientras haya hueco cualquier clave puede entrar
+    private void updateMinCount() {
+        minCount = counts.size() < capacity ? 0
+                : counts.values().stream().mapToInt(Integer::intValue).min().orElse(0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.arsansys.siva.controller;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductPage;
+import com.arsansys.siva.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService)).build();
+    }
+
+    @Test
+    void listWithoutPaginationKeepsTheArrayResponse() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(ProductDTO.builder().id("a").name("Mesa").build()));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").value("a"));
+        verify(productService, never()).getProducts(any(), any(), any());
+    }
+
+    @Test
+    void listWithPaginationParametersReturnsAPage() throws Exception {
+        when(productService.getProducts(null, 10, null)).thenReturn(ProductPage.builder()
+                .items(List.of(ProductDTO.builder().id("a").build())).nextCursor("YQ").build());
+
+        mockMvc.perform(get("/api/v1/products").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("a"))
+                .andExpect(jsonPath("$.nextCursor").value("YQ"));
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void cursorOrFieldsAloneAlsoSelectThePage() throws Exception {
+        when(productService.getProducts(any(), any(), any())).thenReturn(ProductPage.builder().items(List.of()).build());
+
+        mockMvc.perform(get("/api/v1/products").param("cursor", "YQ")).andExpect(jsonPath("$.items").isArray());
+        mockMvc.perform(get("/api/v1/products").param("fields", "name")).andExpect(jsonPath("$.items").isArray());
+        verify(productService).getProducts("YQ", null, null);
+        verify(productService).getProducts(null, null, Set.of("name"));
+    }
+}
@@ -0,0 +1,220 @@
+package com.arsansys.siva.repository.mongo;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.entity.Product;
+import com.arsansys.siva.model.enums.EBulkOperation;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.BulkWrite;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.BulkWriteOutcome;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.SearchQuery;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductRepositoryCustomImplTest {
+
+    private static final LocalDateTime READ_AT = LocalDateTime.of(2026, 1, 1, 10, 0);
+    private static final LocalDateTime WRITTEN_AT = LocalDateTime.of(2026, 1, 2, 10, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulk;
+    @Mock
+    private BulkWriteResult result;
+
+    @InjectMocks
+    private ProductRepositoryCustomImpl repository;
+
+    @Test
+    void bulkWriteFiltersUpdatesAndDeletesByTheReadUpdatedAt() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(result);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getDeletedCount()).thenReturn(1);
+
+        BulkWriteOutcome outcome = repository.bulkWrite(List.of(
+                new BulkWrite(EBulkOperation.CREATE, product("n", WRITTEN_AT), null),
+                new BulkWrite(EBulkOperation.UPDATE, product("a", WRITTEN_AT), READ_AT),
+                new BulkWrite(EBulkOperation.DELETE, product("b", READ_AT), READ_AT)));
+
+        assertThat(outcome.errors()).isEmpty();
+        assertThat(outcome.unmatched()).isEmpty();
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        verify(bulk).updateOne(filter.capture(), any(Update.class));
+        assertThat(filter.getValue().getQueryObject().get("updatedAt")).isEqualTo(READ_AT);
+        verify(bulk).remove(any(Query.class));
+        verify(bulk).insert(any(Product.class));
+        // Los totales cuadran: no hace falta consultar el estado de los documentos
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void staleUpdatesAndDeletesAreReportedAsUnmatched() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(result);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getDeletedCount()).thenReturn(1);
+        // a se actualizó (tiene la fecha escrita); b la cambió otro antes
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(List.of(product("a", WRITTEN_AT), product("b", LocalDateTime.of(2026, 1, 1, 11, 0))))
+                .thenReturn(List.of(product("d", READ_AT)));
+
+        BulkWriteOutcome outcome = repository.bulkWrite(List.of(
+                new BulkWrite(EBulkOperation.UPDATE, product("a", WRITTEN_AT), READ_AT),
+                new BulkWrite(EBulkOperation.UPDATE, product("b", WRITTEN_AT), READ_AT),
+                new BulkWrite(EBulkOperation.DELETE, product("c", READ_AT), READ_AT),
+                new BulkWrite(EBulkOperation.DELETE, product("d", READ_AT), READ_AT)));
+
+        assertThat(outcome.errors()).isEmpty();
+        assertThat(outcome.unmatched()).containsExactlyInAnyOrder(1, 3);
+    }
+
+    @Test
+    void failedWritesAreReportedAsErrorsAndNotAsUnmatched() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulk);
+        BulkOperationException failure = mock(BulkOperationException.class);
+        when(failure.getResult()).thenReturn(result);
+        when(failure.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key",
+                new BsonDocument(), 0)));
+        when(bulk.execute()).thenThrow(failure);
+        when(result.getMatchedCount()).thenReturn(1);
+
+        BulkWriteOutcome outcome = repository.bulkWrite(List.of(
+                new BulkWrite(EBulkOperation.CREATE, product("a", WRITTEN_AT), null),
+                new BulkWrite(EBulkOperation.UPDATE, product("b", WRITTEN_AT), READ_AT)));
+
+        assertThat(outcome.errors()).containsOnlyKeys(0);
+        assertThat(outcome.errors().get(0)).contains("duplicate key");
+        assertThat(outcome.unmatched()).isEmpty();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void keysetAfterResumesAscendingOrderWithNullsFirst() {
+        assertEveryPageResumesAfterItsLastProduct(Sort.Direction.ASC);
+    }
+
+    @Test
+    void keysetAfterResumesDescendingOrderWithNullsLast() {
+        assertEveryPageResumesAfterItsLastProduct(Sort.Direction.DESC);
+    }
+
+    @Test
+    void searchSortsByTheFieldAndThenById() {
+        Query query = searchAfter(Sort.Direction.DESC, 10.0, "a");
+
+        assertThat(query.getSortObject()).isEqualTo(new Document("price", -1).append("_id", -1));
+        assertThat(query.getLimit()).isEqualTo(10);
+    }
+
+    // Recorre la colección en el orden de MongoDB (nulos como el menor valor,
+    // empates por _id) y comprueba que el filtro construido tras cada
+    // producto selecciona exactamente los que le siguen
+    private void assertEveryPageResumesAfterItsLastProduct(Sort.Direction direction) {
+        List<Map<String, Object>> documents = List.of(
+                document("a", null), document("b", 5.0), document("c", null), document("d", 5.0),
+                document("e", 10.0), document("f", 5.0), document("g", null), document("h", 1.0));
+        Comparator<Map<String, Object>> order = Comparator
+                .comparing((Map<String, Object> doc) -> (Double) doc.get("price"),
+                        Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(doc -> (String) doc.get("_id"));
+        List<Map<String, Object>> sorted = new ArrayList<>(documents);
+        sorted.sort(direction.isAscending() ? order : order.reversed());
+
+        for (int i = 0; i < sorted.size(); i++) {
+            Map<String, Object> last = sorted.get(i);
+            Document filter = searchAfter(direction, last.get("price"), (String) last.get("_id")).getQueryObject();
+            List<Object> selected = sorted.stream().filter(doc -> matches(filter, doc)).map(doc -> doc.get("_id"))
+                    .toList();
+            assertThat(selected).as("después de %s", last)
+                    .isEqualTo(sorted.subList(i + 1, sorted.size()).stream().map(doc -> doc.get("_id")).toList());
+        }
+    }
+
+    private Query searchAfter(Sort.Direction direction, Object afterValue, String afterId) {
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        repository.search(new SearchQuery(null, null, null, false, "price", direction, afterValue, afterId, 10));
+        verify(mongoTemplate, atLeastOnce()).find(query.capture(), eq(ProductDTO.class), eq("products"));
+        return query.getValue();
+    }
+
+    // Evalúa un filtro con los operadores que usa el keyset, con la misma
+    // semántica que MongoDB para valores nulos o ausentes
+    @SuppressWarnings("unchecked")
+    private static boolean matches(Document filter, Map<String, Object> doc) {
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            boolean matched = switch (entry.getKey()) {
+                case "$and" -> ((List<Document>) entry.getValue()).stream().allMatch(f -> matches(f, doc));
+                case "$or" -> ((List<Document>) entry.getValue()).stream().anyMatch(f -> matches(f, doc));
+                default -> matchesField(doc.get(entry.getKey()), entry.getValue());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matchesField(Object value, Object condition) {
+        if (!(condition instanceof Document operators)) {
+            return Objects.equals(value, condition);
+        }
+        for (Map.Entry<String, Object> operator : operators.entrySet()) {
+            Comparable<Object> actual = (Comparable<Object>) value;
+            boolean matched = switch (operator.getKey()) {
+                case "$gt" -> actual != null && actual.compareTo(operator.getValue()) > 0;
+                case "$lt" -> actual != null && actual.compareTo(operator.getValue()) < 0;
+                case "$ne" -> !Objects.equals(value, operator.getValue());
+                default -> throw new AssertionError("Operador inesperado: " + operator.getKey());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> document(String id, Double price) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("_id", id);
+        doc.put("price", price);
+        return doc;
+    }
+
+    private static Product product(String id, LocalDateTime updatedAt) {
+        return Product.builder().id(id).name("Producto " + id).category("hogar").price(10.0).stock(1)
+                .updatedAt(updatedAt).build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.arsansys.siva.security.password;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void rejectsImmediatelyWhenPoolAndQueueAreFull() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5_000, meterRegistry);
+        Future<String> running = callers.submit(() -> encoder.encode("a"));
+        assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> queued = callers.submit(() -> encoder.encode("b"));
+        waitUntil(() -> encoderQueueSize() == 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(PasswordHashingRejectedException.class);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Sin esperar al tiempo de cola de 5 s
+        assertThat(elapsedMs).isLessThan(500);
+        assertThat(meterRegistry.counter("password.hashing.rejected").count()).isEqualTo(1.0);
+        delegate.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+    }
+
+    @Test
+    void operationThatDoesNotStartInTimeIsRejectedAndNeverRuns() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 50, meterRegistry);
+        Future<String> running = callers.submit(() -> encoder.encode("a"));
+        assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.encode("b")).isInstanceOf(PasswordHashingRejectedException.class);
+        delegate.release.countDown();
+
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        // La operación abandonada ni ocupa el hilo ni su plaza
+        assertThat(encoder.encode("c")).isEqualTo("hash:c");
+        assertThat(delegate.calls).hasValue(2);
+    }
+
+    @Test
+    void operationAlreadyRunningIsNotCancelledByTheQueueWait() {
+        BlockingEncoder delegate = new BlockingEncoder();
+        delegate.release.countDown();
+        delegate.delayMs = 200;
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, 20, meterRegistry);
+
+        assertThat(encoder.encode("a")).isEqualTo("hash:a");
+        assertThat(encoder.matches("a", "hash:a")).isTrue();
+    }
+
+    private int encoderQueueSize() {
+        return (int) meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    // Codificador que se queda bloqueado hasta que la prueba lo libera
+    private static final class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile long delayMs;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
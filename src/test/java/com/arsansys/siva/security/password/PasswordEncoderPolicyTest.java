@@ -0,0 +1,66 @@
+package com.arsansys.siva.security.password;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordEncoderPolicyTest {
+
+    private static final String PASSWORD = "contraseña";
+
+    @Test
+    void bcryptHashWithTheConfiguredCostIsNotUpgraded() {
+        PasswordEncoder encoder = PasswordEncoderPolicy.build("bcrypt", 10);
+        String hash = encoder.encode(PASSWORD);
+
+        assertThat(hash).startsWith("{bcrypt}$2a$10$");
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void bcryptHashWithAHigherOrLowerCostIsUpgraded() {
+        PasswordEncoder encoder = PasswordEncoderPolicy.build("bcrypt", 11);
+
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(12).encode(PASSWORD))).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(10).encode(PASSWORD))).isTrue();
+    }
+
+    @Test
+    void argon2HashIsUpgradedWhenThePolicyIsBcrypt() {
+        PasswordEncoder encoder = PasswordEncoderPolicy.build("bcrypt", 10);
+        String hash = "{argon2}" + Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isTrue();
+    }
+
+    @Test
+    void bcryptHashIsUpgradedWhenThePolicyIsArgon2() {
+        PasswordEncoder encoder = PasswordEncoderPolicy.build("argon2", 10);
+        String argon2Hash = encoder.encode(PASSWORD);
+
+        assertThat(argon2Hash).startsWith("{argon2}");
+        assertThat(encoder.upgradeEncoding(argon2Hash)).isFalse();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(10).encode(PASSWORD))).isTrue();
+    }
+
+    @Test
+    void unprefixedLegacyBcryptHashStillMatchesAndIsUpgraded() {
+        PasswordEncoder encoder = PasswordEncoderPolicy.build("bcrypt", 10);
+        String legacy = new BCryptPasswordEncoder(10).encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void unknownAlgorithmIsRejected() {
+        assertThatThrownBy(() -> PasswordEncoderPolicy.build("md5", 10))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.arsansys.siva.service.cache;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductCacheTest {
+
+    private final ProductPopularity popularity = mock(ProductPopularity.class);
+
+    private final ProductCache cache = new ProductCache(new SimpleMeterRegistry(), popularity);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "categoryMaxSize", 10L);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        cache.init();
+    }
+
+    @Test
+    void frequentProductIsReadThroughOnce() {
+        when(popularity.recordProduct("p1")).thenReturn(true);
+
+        assertThat(cache.getById("p1", this::load).getId()).isEqualTo("p1");
+        assertThat(cache.getById("p1", this::load).getId()).isEqualTo("p1");
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void infrequentProductIsNotStored() {
+        when(popularity.recordProduct("p1")).thenReturn(false);
+
+        cache.getById("p1", this::load);
+        cache.getById("p1", this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void callersReceiveCopiesOfTheCachedProduct() {
+        when(popularity.recordProduct("p1")).thenReturn(true);
+
+        ProductDTO first = cache.getById("p1", this::load);
+        first.setName("Modificado");
+        first.setStock(0);
+
+        ProductDTO second = cache.getById("p1", this::load);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("Producto p1");
+        assertThat(second.getStock()).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void categoryListsAndBatchReadsAlsoReturnCopies() {
+        when(popularity.recordCategory("hogar")).thenReturn(true);
+        when(popularity.recordProduct(anyString())).thenReturn(true);
+
+        cache.getByCategory("hogar", category -> List.of(load("p1"))).get(0).setName("Modificado");
+        assertThat(cache.getByCategory("hogar", category -> List.of()).get(0).getName()).isEqualTo("Producto p1");
+
+        cache.getAllById(List.of("p2"), this::loadAll).get("p2").setPrice(1.0);
+        assertThat(cache.getAllById(List.of("p2"), this::loadAll).get("p2").getPrice()).isEqualTo(10.0);
+    }
+
+    @Test
+    void batchReadOnlyLoadsTheMisses() {
+        when(popularity.recordProduct(anyString())).thenReturn(true);
+        cache.getById("p1", this::load);
+
+        Map<String, ProductDTO> found = cache.getAllById(List.of("p1", "p2", "p3"), ids -> {
+            assertThat(ids).containsExactly("p2", "p3");
+            return loadAll(ids);
+        });
+
+        assertThat(found).containsOnlyKeys("p1", "p2", "p3");
+    }
+
+    @Test
+    void writeInvalidatesTheProductAndItsCategories() {
+        when(popularity.recordProduct("p1")).thenReturn(true);
+        when(popularity.recordCategory(anyString())).thenReturn(true);
+        ProductDTO before = cache.getById("p1", this::load);
+        cache.getByCategory("hogar", category -> List.of(before));
+        cache.getByCategory("jardin", category -> List.of());
+        cache.getByCategory("cocina", category -> List.of());
+
+        ProductDTO after = before.toBuilder().category("jardin").build();
+        cache.onProductChanged(new ProductChangedEvent(before, after));
+
+        cache.getById("p1", this::load);
+        assertThat(loads).hasValue(2);
+        AtomicInteger categoryLoads = new AtomicInteger();
+        for (String category : List.of("hogar", "jardin", "cocina")) {
+            cache.getByCategory(category, key -> {
+                categoryLoads.incrementAndGet();
+                return List.of();
+            });
+        }
+        // Solo se recargan las dos categorías afectadas
+        assertThat(categoryLoads).hasValue(2);
+    }
+
+    @Test
+    void loadThatRacesWithAWriteIsNotStored() {
+        when(popularity.recordProduct("p1")).thenReturn(true);
+        ProductDTO stale = load("p1");
+
+        cache.getById("p1", id -> {
+            // La escritura llega mientras la carga está en curso
+            cache.onProductChanged(new ProductChangedEvent(stale, stale));
+            return stale;
+        });
+        cache.getById("p1", this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void preloadCachesWithoutRecordingARead() {
+        assertThat(cache.preload("p1", this::load)).isTrue();
+
+        verify(popularity, never()).recordProduct("p1");
+        // La lectura posterior se anota, pero ya no consulta la base de datos
+        when(popularity.recordProduct("p1")).thenReturn(false);
+        assertThat(cache.getById("p1", this::load).getName()).isEqualTo("Producto p1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void preloadOfMissingProductReturnsFalse() {
+        assertThat(cache.preload("p1", id -> null)).isFalse();
+        verify(popularity, never()).recordProduct("p1");
+    }
+
+    private Map<String, ProductDTO> loadAll(Set<String> ids) {
+        return ids.stream().collect(Collectors.toMap(id -> id, this::load));
+    }
+
+    private ProductDTO load(String id) {
+        loads.incrementAndGet();
+        return ProductDTO.builder().id(id).name("Producto " + id).category("hogar").price(10.0).stock(1).build();
+    }
+}
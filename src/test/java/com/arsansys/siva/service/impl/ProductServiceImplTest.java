@@ -0,0 +1,364 @@
+package com.arsansys.siva.service.impl;
+
+import com.arsansys.siva.model.dto.ProductBulkItem;
+import com.arsansys.siva.model.dto.ProductBulkResponse;
+import com.arsansys.siva.model.dto.ProductBulkResult;
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductPage;
+import com.arsansys.siva.model.dto.ProductPatchRequest;
+import com.arsansys.siva.model.dto.ProductRequest;
+import com.arsansys.siva.model.dto.ProductSearchRequest;
+import com.arsansys.siva.model.dto.StockItemRequest;
+import com.arsansys.siva.model.dto.StockLevelDTO;
+import com.arsansys.siva.model.entity.Product;
+import com.arsansys.siva.model.enums.EBulkOperation;
+import com.arsansys.siva.model.enums.EBulkStatus;
+import com.arsansys.siva.repository.mongo.ProductRepository;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.BulkWrite;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.BulkWriteOutcome;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.SearchQuery;
+import com.arsansys.siva.repository.mongo.ProductRepositoryCustom.StockUpdate;
+import com.arsansys.siva.service.cache.ProductCache;
+import com.arsansys.siva.service.cache.ProductPopularity;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import com.arsansys.siva.service.exception.InsufficientStockException;
+import com.arsansys.siva.service.exception.InvalidStockQuantityException;
+import com.arsansys.siva.service.exception.ProductConflictException;
+import com.arsansys.siva.service.invalidation.InvalidationBus;
+import com.arsansys.siva.service.search.CategoryStats;
+import com.arsansys.siva.service.search.ProductNameIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import jakarta.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ProductPopularity productPopularity;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private InvalidationBus invalidationBus;
+    @Mock
+    private Validator validator;
+    @Mock
+    private ProductNameIndex productNameIndex;
+    @Mock
+    private CategoryStats categoryStats;
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 10, 0);
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 1, 2, 10, 0);
+
+    @Test
+    void reserveMergesLinesOfTheSameProductAndPublishesEachChange() {
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("a", -3);
+        expected.put("b", -1);
+        when(productRepository.incrementStocks(expected))
+                .thenReturn(new StockUpdate(List.of(product("a", 7), product("b", 4)), null));
+
+        List<StockLevelDTO> levels = productService.reserveStock(List.of(item("a", 1), item("b", 1), item("a", 2)));
+
+        assertThat(levels).extracting(StockLevelDTO::getProductId, StockLevelDTO::getStock)
+                .containsExactly(tuple("a", 7), tuple("b", 4));
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0).before().getStock()).isEqualTo(10);
+        assertThat(events.getAllValues().get(0).after().getStock()).isEqualTo(7);
+    }
+
+    @Test
+    void insufficientStockRollsBackWithoutPublishingAnything() {
+        when(productRepository.incrementStocks(any())).thenReturn(new StockUpdate(List.of(), "b"));
+        when(productRepository.findById("b")).thenReturn(Optional.of(product("b", 1)));
+
+        assertThatThrownBy(() -> productService.reserveStock(List.of(item("a", 1), item("b", 2))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("pedido 2")
+                .hasMessageContaining("disponible 1");
+        verifyNoInteractions(eventPublisher, invalidationBus, categoryStats);
+    }
+
+    @Test
+    void quantitiesThatOverflowWhenMergedAreRejectedBeforeWriting() {
+        assertThatThrownBy(() -> productService.reserveStock(
+                List.of(item("a", Integer.MAX_VALUE), item("a", 1))))
+                .isInstanceOf(InvalidStockQuantityException.class);
+        verify(productRepository, never()).incrementStocks(any());
+    }
+
+    @Test
+    void releaseThatWouldOverflowTheStoredStockIsRejected() {
+        when(productRepository.incrementStocks(any())).thenReturn(new StockUpdate(List.of(), "a"));
+        when(productRepository.findById("a")).thenReturn(Optional.of(product("a", Integer.MAX_VALUE)));
+
+        assertThatThrownBy(() -> productService.releaseStock(List.of(item("a", 1))))
+                .isInstanceOf(InvalidStockQuantityException.class);
+        verifyNoInteractions(eventPublisher, invalidationBus, categoryStats);
+    }
+
+    @Test
+    void unknownProductIsReportedAsNotFound() {
+        when(productRepository.incrementStocks(any())).thenReturn(new StockUpdate(List.of(), "x"));
+        when(productRepository.findById("x")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> productService.reserveStock(List.of(item("x", 1))))
+                .hasMessageContaining("Producto no encontrado con id: x");
+    }
+
+    @Test
+    void bulkAppliesMixedOperationsAgainstTheReadState() {
+        Product a = product("a", 5);
+        Product b = product("b", 5);
+        when(productRepository.findAllById(Set.of("a", "b"))).thenReturn(List.of(a, b));
+        when(productRepository.bulkWrite(any())).thenReturn(new BulkWriteOutcome(Map.of(), Set.of()));
+
+        ProductBulkResponse response = productService.bulkWrite(List.of(
+                bulkItem(EBulkOperation.CREATE, null),
+                bulkItem(EBulkOperation.UPDATE, "a"),
+                bulkItem(EBulkOperation.DELETE, "b")));
+
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(ProductBulkResult::getStatus).containsOnly(EBulkStatus.OK);
+        List<BulkWrite> writes = captureBulkWrites();
+        assertThat(writes).extracting(BulkWrite::operation, BulkWrite::expectedUpdatedAt).containsExactly(
+                tuple(EBulkOperation.CREATE, null),
+                tuple(EBulkOperation.UPDATE, UPDATED_AT),
+                tuple(EBulkOperation.DELETE, UPDATED_AT));
+        assertThat(writes.get(0).product().getId()).isEqualTo(response.getResults().get(0).getId()).isNotNull();
+        assertThat(writes.get(1).product().getCreatedAt()).isEqualTo(a.getCreatedAt());
+        assertThat(writes.get(1).product().getUpdatedAt()).isAfter(UPDATED_AT);
+
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0).before()).isNull();
+        assertThat(events.getAllValues().get(1).after().getStock()).isEqualTo(20);
+        assertThat(events.getAllValues().get(2).after()).isNull();
+    }
+
+    @Test
+    void bulkReportsStaleAndFailedWritesWithoutPublishingThem() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(product("a", 5), product("b", 5)));
+        when(productRepository.bulkWrite(any()))
+                .thenReturn(new BulkWriteOutcome(Map.of(2, "E11000 duplicate key"), Set.of(1)));
+
+        ProductBulkResponse response = productService.bulkWrite(List.of(
+                bulkItem(EBulkOperation.UPDATE, "a"),
+                bulkItem(EBulkOperation.UPDATE, "b"),
+                bulkItem(EBulkOperation.CREATE, null)));
+
+        assertThat(response.getResults()).extracting(ProductBulkResult::getStatus)
+                .containsExactly(EBulkStatus.OK, EBulkStatus.CONFLICT, EBulkStatus.ERROR);
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().productId()).isEqualTo("a");
+    }
+
+    @Test
+    void bulkRejectsRepeatedIdsAndMissingProducts() {
+        when(productRepository.findAllById(Set.of("a", "x"))).thenReturn(List.of(product("a", 5)));
+        when(productRepository.bulkWrite(any())).thenReturn(new BulkWriteOutcome(Map.of(), Set.of()));
+
+        ProductBulkResponse response = productService.bulkWrite(List.of(
+                bulkItem(EBulkOperation.UPDATE, "a"),
+                bulkItem(EBulkOperation.DELETE, "a"),
+                bulkItem(EBulkOperation.DELETE, "x")));
+
+        assertThat(response.getResults()).extracting(ProductBulkResult::getStatus)
+                .containsExactly(EBulkStatus.OK, EBulkStatus.INVALID, EBulkStatus.NOT_FOUND);
+        assertThat(response.getResults().get(1).getMessage()).contains("repetido");
+        assertThat(captureBulkWrites()).extracting(BulkWrite::operation).containsExactly(EBulkOperation.UPDATE);
+    }
+
+    @Test
+    void patchReturnsAndPublishesTheStoredDocument() {
+        Product previous = product("a", 5);
+        when(productRepository.patch(eq("a"), any(), eq(UPDATED_AT))).thenReturn(previous);
+
+        ProductDTO patched = productService.patchProduct("a", ProductPatchRequest.builder()
+                .name("Mesa").price(99.5).stock(0).expectedUpdatedAt(UPDATED_AT).build());
+
+        // El documento guardado es el anterior con el mismo $set aplicado
+        ProductDTO stored = storedAfterPatch(previous, capturePatchFields("a"));
+        assertThat(patched).isEqualTo(stored);
+        assertThat(patched.getCategory()).isEqualTo("hogar");
+        assertThat(patched.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(patched.getUpdatedAt()).isAfter(UPDATED_AT);
+
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().after()).isEqualTo(stored);
+        assertThat(event.getValue().before().getName()).isEqualTo("Producto a");
+        assertThat(event.getValue().before().getUpdatedAt()).isEqualTo(UPDATED_AT);
+        // La caché no se escribe: el evento invalida la entrada y la siguiente
+        // lectura carga el documento guardado
+        verify(invalidationBus).publish(event.getValue());
+        verifyNoInteractions(productCache);
+    }
+
+    @Test
+    void patchOnlySetsTheFieldsPresentInTheRequest() {
+        when(productRepository.patch(eq("a"), any(), isNull())).thenReturn(product("a", 5));
+
+        ProductDTO patched = productService.patchProduct("a", ProductPatchRequest.builder().price(20.0).build());
+
+        Map<String, Object> fields = capturePatchFields("a");
+        assertThat(fields).containsOnlyKeys("price", "updatedAt");
+        assertThat(patched).isEqualTo(storedAfterPatch(product("a", 5), fields));
+    }
+
+    @Test
+    void patchWithStaleUpdatedAtIsAConflict() {
+        when(productRepository.patch(eq("a"), any(), eq(CREATED_AT))).thenReturn(null);
+        when(productRepository.existsById("a")).thenReturn(true);
+
+        assertThatThrownBy(() -> productService.patchProduct("a",
+                ProductPatchRequest.builder().stock(1).expectedUpdatedAt(CREATED_AT).build()))
+                .isInstanceOf(ProductConflictException.class);
+        verifyNoInteractions(eventPublisher, invalidationBus, categoryStats);
+    }
+
+    @Test
+    void searchCursorRoundTripsEverySortValue() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 4, 5, 6, 7, 8_000_000);
+        assertThat(nextPageAfter("createdAt", ProductDTO.builder().id("a").createdAt(createdAt).build()))
+                .extracting(SearchQuery::afterId, SearchQuery::afterValue).containsExactly("a", createdAt);
+        assertThat(nextPageAfter("price", ProductDTO.builder().id("b").price(12.5).build()).afterValue())
+                .isEqualTo(12.5);
+        // Un nombre vacío, el texto "null" o un salto de línea no se confunden
+        // con un valor nulo ni con los separadores del cursor
+        assertThat(nextPageAfter("name", ProductDTO.builder().id("c").name("").build()).afterValue())
+                .isEqualTo("");
+        assertThat(nextPageAfter("name", ProductDTO.builder().id("d").name("null").build()).afterValue())
+                .isEqualTo("null");
+        assertThat(nextPageAfter("name", ProductDTO.builder().id("e").name("=a\nb").build()).afterValue())
+                .isEqualTo("=a\nb");
+    }
+
+    @Test
+    void searchCursorEncodesAMissingSortValueAsNull() {
+        SearchQuery next = nextPageAfter("price", ProductDTO.builder().id("a").build());
+
+        assertThat(next.afterId()).isEqualTo("a");
+        assertThat(next.afterValue()).isNull();
+    }
+
+    @Test
+    void searchCursorOfAnotherSortIsRejected() {
+        ReflectionTestUtils.setField(productService, "maxPageSize", 10);
+        when(productRepository.search(any())).thenReturn(List.of(
+                ProductDTO.builder().id("a").price(1.0).build(), ProductDTO.builder().id("b").price(2.0).build()));
+        String cursor = productService.searchProducts(searchRequest("price", null)).getNextCursor();
+
+        assertThatThrownBy(() -> productService.searchProducts(searchRequest("name", cursor)))
+                .hasMessageContaining("Cursor no válido");
+    }
+
+    // Pide una página de un producto cuyo último elemento es 'last' y
+    // devuelve la consulta de la página siguiente, construida con su cursor
+    private SearchQuery nextPageAfter(String sort, ProductDTO last) {
+        ReflectionTestUtils.setField(productService, "maxPageSize", 10);
+        when(productRepository.search(any())).thenReturn(List.of(last, ProductDTO.builder().id("z").build()));
+        ProductPage page = productService.searchProducts(searchRequest(sort, null));
+        assertThat(page.getItems()).containsExactly(last);
+
+        ArgumentCaptor<SearchQuery> queries = ArgumentCaptor.forClass(SearchQuery.class);
+        productService.searchProducts(searchRequest(sort, page.getNextCursor()));
+        verify(productRepository, atLeast(2)).search(queries.capture());
+        return queries.getValue();
+    }
+
+    private static ProductSearchRequest searchRequest(String sort, String cursor) {
+        return ProductSearchRequest.builder().sort(sort).cursor(cursor).limit(1).build();
+    }
+
+    private Map<String, Object> capturePatchFields(String id) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(productRepository).patch(eq(id), fields.capture(), any());
+        return fields.getValue();
+    }
+
+    // Aplica a una copia del documento el $set enviado al repositorio
+    private static ProductDTO storedAfterPatch(Product previous, Map<String, Object> fields) {
+        ProductDTO stored = ProductDTO.builder()
+                .id(previous.getId())
+                .name(previous.getName())
+                .description(previous.getDescription())
+                .price(previous.getPrice())
+                .stock(previous.getStock())
+                .category(previous.getCategory())
+                .createdAt(previous.getCreatedAt())
+                .updatedAt(previous.getUpdatedAt())
+                .build();
+        fields.forEach((field, value) -> {
+            switch (field) {
+                case "name" -> stored.setName((String) value);
+                case "description" -> stored.setDescription((String) value);
+                case "price" -> stored.setPrice((Double) value);
+                case "stock" -> stored.setStock((Integer) value);
+                case "category" -> stored.setCategory((String) value);
+                case "updatedAt" -> stored.setUpdatedAt((LocalDateTime) value);
+                default -> throw new AssertionError("Campo inesperado: " + field);
+            }
+        });
+        return stored;
+    }
+
+    private List<BulkWrite> captureBulkWrites() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BulkWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).bulkWrite(writes.capture());
+        return writes.getValue();
+    }
+
+    private static ProductBulkItem bulkItem(EBulkOperation operation, String id) {
+        ProductRequest request = operation == EBulkOperation.DELETE ? null
+                : ProductRequest.builder().name("Nuevo").price(12.0).stock(20).category("hogar").build();
+        return ProductBulkItem.builder().operation(operation).id(id).product(request).build();
+    }
+
+    private static StockItemRequest item(String productId, int quantity) {
+        return StockItemRequest.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private static Product product(String id, int stock) {
+        return Product.builder().id(id).name("Producto " + id).category("hogar").price(10.0).stock(stock)
+                .createdAt(CREATED_AT).updatedAt(UPDATED_AT).build();
+    }
+}
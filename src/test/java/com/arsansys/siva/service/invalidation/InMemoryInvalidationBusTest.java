@@ -0,0 +1,62 @@
+package com.arsansys.siva.service.invalidation;
+
+import com.arsansys.siva.security.jwt.UserClaimsChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InMemoryInvalidationBusTest {
+
+    private final ApplicationEventPublisher publisherA = mock(ApplicationEventPublisher.class);
+    private final ApplicationEventPublisher publisherB = mock(ApplicationEventPublisher.class);
+
+    private final InMemoryInvalidationBus nodeA = new InMemoryInvalidationBus(publisherA);
+    private final InMemoryInvalidationBus nodeB = new InMemoryInvalidationBus(publisherB);
+
+    @BeforeEach
+    void setUp() {
+        nodeA.join();
+        nodeB.join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.leave();
+        nodeB.leave();
+    }
+
+    @Test
+    void eventReachesTheOtherNodeButNotTheSender() {
+        UserClaimsChangedEvent event = new UserClaimsChangedEvent("ana");
+
+        nodeA.publish(event);
+
+        verify(publisherB).publishEvent(event);
+        verify(publisherA, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void publishAllDeliversEveryEvent() {
+        nodeB.publishAll(List.of(new UserClaimsChangedEvent("ana"), new UserClaimsChangedEvent("luis")));
+
+        verify(publisherA, times(2)).publishEvent(any(Object.class));
+        verify(publisherB, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void nodeThatLeftNoLongerReceivesEvents() {
+        nodeB.leave();
+
+        nodeA.publish(new UserClaimsChangedEvent("ana"));
+
+        verify(publisherB, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,149 @@
+package com.arsansys.siva.service.invalidation;
+
+import com.arsansys.siva.security.jwt.UserClaimsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.CursorType;
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoInvalidationBusTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final FindIterable<Document> find = mock(FindIterable.class);
+
+    private final MongoInvalidationBus bus = new MongoInvalidationBus(mongoTemplate, objectMapper, eventPublisher);
+
+    // Documento de inicio que inserta el nodo al arrancar
+    private final List<Document> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bus, "collectionName", "invalidation_bus");
+        ReflectionTestUtils.setField(bus, "retryMs", 1L);
+        when(mongoTemplate.collectionExists("invalidation_bus")).thenReturn(true);
+        when(mongoTemplate.getCollection("invalidation_bus")).thenReturn(collection);
+        // El driver asigna el _id al insertar
+        doAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            document.put("_id", new ObjectId());
+            inserted.add(document);
+            return null;
+        }).when(collection).insertOne(any(Document.class));
+        when(collection.find()).thenReturn(find);
+        when(find.sort(any(Bson.class))).thenReturn(find);
+        when(find.cursorType(CursorType.TailableAwait)).thenReturn(find);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    @Test
+    void messagesOfOtherNodesAfterTheStartAreDelivered() throws Exception {
+        Document older = message("otro", new UserClaimsChangedEvent("antes"));
+        Document foreign = message("otro", new UserClaimsChangedEvent("ana"));
+        openCursors(() -> List.of(older, startDocument(), foreign));
+
+        bus.start();
+
+        verify(eventPublisher, timeout(2000)).publishEvent(new UserClaimsChangedEvent("ana"));
+        verify(eventPublisher, never()).publishEvent(new UserClaimsChangedEvent("antes"));
+    }
+
+    @Test
+    void ownMessagesAreIgnored() throws Exception {
+        Document own = message(bus.getNodeId(), new UserClaimsChangedEvent("ana"));
+        openCursors(() -> List.of(startDocument(), own));
+
+        bus.start();
+
+        verify(eventPublisher, after(300).never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void typesThatAreNotInvalidationEventsAreRefused() throws Exception {
+        Document forged = new Document("_id", new ObjectId()).append("origin", "otro")
+                .append("type", "java.util.ArrayList").append("payload", "[]");
+        Document valid = message("otro", new UserClaimsChangedEvent("ana"));
+        openCursors(() -> List.of(startDocument(), forged, valid));
+
+        bus.start();
+
+        verify(eventPublisher, timeout(2000)).publishEvent(new UserClaimsChangedEvent("ana"));
+        verify(eventPublisher, never()).publishEvent(any(ArrayList.class));
+    }
+
+    @Test
+    void lostPositionRedeliversTheMessagesPresent() throws Exception {
+        // El documento de inicio ya se ha descartado de la colección limitada
+        Document foreign = message("otro", new UserClaimsChangedEvent("ana"));
+        openCursors(() -> List.of(foreign));
+
+        bus.start();
+
+        verify(eventPublisher, timeout(2000)).publishEvent(new UserClaimsChangedEvent("ana"));
+    }
+
+    // Cada apertura del cursor devuelve los documentos indicados y después
+    // espera, como un cursor tailable sin mensajes nuevos
+    private void openCursors(Supplier<List<Document>> contents) {
+        when(find.iterator()).thenAnswer(invocation -> cursorOver(contents.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCursor<Document> cursorOver(List<Document> documents) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.getServerCursor()).thenReturn(new ServerCursor(1L, new ServerAddress()));
+        OngoingStubbing<Document> next = when(cursor.tryNext());
+        for (Document document : documents) {
+            next = next.thenReturn(document);
+        }
+        next.thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return null;
+        });
+        return cursor;
+    }
+
+    private Document startDocument() {
+        return inserted.get(0);
+    }
+
+    private Document message(String origin, InvalidationEvent event) throws Exception {
+        return new Document("_id", new ObjectId()).append("origin", origin)
+                .append("type", event.getClass().getName())
+                .append("payload", objectMapper.writeValueAsString(event));
+    }
+}
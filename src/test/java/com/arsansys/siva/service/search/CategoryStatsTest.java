@@ -0,0 +1,143 @@
+package com.arsansys.siva.service.search;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CategoryStatsTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private final BulkOperations bulk = mock(BulkOperations.class);
+
+    private final CategoryStats stats = new CategoryStats(mongoTemplate);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stats, "bucketBounds", List.of(10.0, 25.0, 50.0));
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq("product_category_stats")))
+                .thenReturn(bulk);
+    }
+
+    @Test
+    void createdProductAddsToCountsBucketAndPriceRange() {
+        stats.apply(List.of(new ProductChangedEvent(null, product("hogar", 12.0, 3))));
+
+        Map<String, Document> updates = captureUpdates(1);
+        Document inc = updates.get("hogar").get("$inc", Document.class);
+        assertThat(inc.get("count")).isEqualTo(1L);
+        assertThat(inc.get("inStock")).isEqualTo(1L);
+        assertThat(inc.get("priced")).isEqualTo(1L);
+        assertThat(inc.get("priceSum")).isEqualTo(12.0);
+        assertThat(inc.get("histogram.b1")).isEqualTo(1L);
+        assertThat(updates.get("hogar").get("$min", Document.class).get("priceMin")).isEqualTo(12.0);
+        assertThat(updates.get("hogar").get("$max", Document.class).get("priceMax")).isEqualTo(12.0);
+        assertThat(updates.get("hogar").get("$currentDate", Document.class)).containsKey("updatedAt");
+    }
+
+    @Test
+    void priceBoundsBelongToTheUpperBucket() {
+        stats.apply(List.of(
+                new ProductChangedEvent(null, product("a", 0.0, 1)),
+                new ProductChangedEvent(null, product("b", 10.0, 1)),
+                new ProductChangedEvent(null, product("c", 49.99, 1)),
+                new ProductChangedEvent(null, product("d", 50.0, 1))));
+
+        Map<String, Document> updates = captureUpdates(4);
+        assertThat(updates.get("a").get("$inc", Document.class)).containsKey("histogram.b0");
+        assertThat(updates.get("b").get("$inc", Document.class)).containsKey("histogram.b1");
+        assertThat(updates.get("c").get("$inc", Document.class)).containsKey("histogram.b2");
+        assertThat(updates.get("d").get("$inc", Document.class)).containsKey("histogram.b3");
+    }
+
+    @Test
+    void categoryChangeMovesTheProductBetweenCategories() {
+        ProductDTO before = product("hogar", 30.0, 0);
+        ProductDTO after = product("jardin", 30.0, 5);
+
+        stats.apply(List.of(new ProductChangedEvent(before, after)));
+
+        Map<String, Document> updates = captureUpdates(2);
+        Document removed = updates.get("hogar").get("$inc", Document.class);
+        assertThat(removed.get("count")).isEqualTo(-1L);
+        assertThat(removed.get("inStock")).isEqualTo(0L);
+        assertThat(removed.get("priceSum")).isEqualTo(-30.0);
+        assertThat(removed.get("histogram.b2")).isEqualTo(-1L);
+        // Quitar un producto no puede mover el mínimo ni el máximo
+        assertThat(updates.get("hogar")).doesNotContainKeys("$min", "$max");
+        assertThat(updates.get("jardin").get("$inc", Document.class).get("inStock")).isEqualTo(1L);
+    }
+
+    @Test
+    void changeThatLeavesEveryCounterEqualIsNotWritten() {
+        ProductDTO before = product("hogar", 20.0, 3);
+        ProductDTO after = product("hogar", 20.0, 2);
+
+        stats.apply(List.of(new ProductChangedEvent(before, after)));
+
+        verifyNoInteractions(bulk);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(String.class));
+    }
+
+    @Test
+    void stockDroppingToZeroOnlyChangesInStock() {
+        stats.apply(List.of(new ProductChangedEvent(product("hogar", 20.0, 3), product("hogar", 20.0, 0))));
+
+        Document inc = captureUpdates(1).get("hogar").get("$inc", Document.class);
+        assertThat(inc.get("count")).isEqualTo(0L);
+        assertThat(inc.get("inStock")).isEqualTo(-1L);
+        assertThat(inc).doesNotContainKey("histogram.b1");
+    }
+
+    @Test
+    void productsWithoutCategoryOrPriceAreHandled() {
+        stats.apply(List.of(
+                new ProductChangedEvent(null, product(null, 5.0, 1)),
+                new ProductChangedEvent(null, product("hogar", null, null))));
+
+        Map<String, Document> updates = captureUpdates(1);
+        Document inc = updates.get("hogar").get("$inc", Document.class);
+        assertThat(inc.get("count")).isEqualTo(1L);
+        assertThat(inc.get("inStock")).isEqualTo(0L);
+        assertThat(inc.get("priced")).isEqualTo(0L);
+        assertThat(updates.get("hogar")).doesNotContainKeys("$min", "$max");
+    }
+
+    private Map<String, Document> captureUpdates(int expected) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(expected)).upsert(queries.capture(), updates.capture());
+        verify(bulk).execute();
+        Map<String, Document> byCategory = new HashMap<>();
+        for (int i = 0; i < expected; i++) {
+            byCategory.put(queries.getAllValues().get(i).getQueryObject().getString("_id"),
+                    updates.getAllValues().get(i).getUpdateObject());
+        }
+        return byCategory;
+    }
+
+    private static ProductDTO product(String category, Double price, Integer stock) {
+        return ProductDTO.builder().id("p").name("Producto").category(category).price(price).stock(stock).build();
+    }
+}
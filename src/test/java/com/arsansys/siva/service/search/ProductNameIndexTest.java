@@ -0,0 +1,89 @@
+package com.arsansys.siva.service.search;
+
+import com.arsansys.siva.model.dto.ProductDTO;
+import com.arsansys.siva.model.dto.ProductSuggestionDTO;
+import com.arsansys.siva.repository.mongo.ProductRepository;
+import com.arsansys.siva.service.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductNameIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private final ProductNameIndex index = new ProductNameIndex(productRepository);
+
+    @Test
+    void matchesIgnoringAccentsAndCase() {
+        index.onProductChanged(created("1", "Camión de Bomberos"));
+
+        assertThat(ids(index.suggest("CAMION", 10))).containsExactly("1");
+        assertThat(ids(index.suggest("camión", 10))).containsExactly("1");
+    }
+
+    @Test
+    void matchesAnyWordAndMultiWordPrefixes() {
+        index.onProductChanged(created("1", "Zapatilla  Running Pro"));
+        index.onProductChanged(created("2", "Zapato de vestir"));
+
+        assertThat(ids(index.suggest("run", 10))).containsExactly("1");
+        assertThat(ids(index.suggest("zapat", 10))).containsExactlyInAnyOrder("1", "2");
+        assertThat(ids(index.suggest("zapatilla run", 10))).containsExactly("1");
+        assertThat(ids(index.suggest("running  p", 10))).containsExactly("1");
+        assertThat(index.suggest("zapatilla vestir", 10)).isEmpty();
+    }
+
+    @Test
+    void renamedAndDeletedProductsLeaveNoStaleKeys() {
+        ProductDTO original = product("1", "Mesa plegable");
+        index.onProductChanged(new ProductChangedEvent(null, original));
+        ProductDTO renamed = product("1", "Silla plegable");
+        index.onProductChanged(new ProductChangedEvent(original, renamed));
+
+        assertThat(index.suggest("mesa", 10)).isEmpty();
+        assertThat(ids(index.suggest("silla", 10))).containsExactly("1");
+
+        index.onProductChanged(new ProductChangedEvent(renamed, null));
+
+        assertThat(index.suggest("plegable", 10)).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsUpdatesReceivedWhileScanning() {
+        ProductDTO stale = product("1", "Nombre antiguo");
+        ProductDTO fresh = product("1", "Nombre nuevo");
+        // El evento llega después de que el recorrido haya leído el documento
+        when(productRepository.streamByCategoryAndUpdatedSince(null, null)).thenReturn(Stream.of(stale)
+                .peek(product -> index.onProductChanged(new ProductChangedEvent(stale, fresh))));
+
+        index.rebuild();
+
+        assertThat(index.suggest("antiguo", 10)).isEmpty();
+        assertThat(ids(index.suggest("nuevo", 10))).containsExactly("1");
+    }
+
+    @Test
+    void respectsTheLimit() {
+        index.onProductChanged(created("1", "Lámpara de mesa"));
+        index.onProductChanged(created("2", "Lámpara de pie"));
+
+        assertThat(index.suggest("lampara", 1)).hasSize(1);
+    }
+
+    private static ProductChangedEvent created(String id, String name) {
+        return new ProductChangedEvent(null, product(id, name));
+    }
+
+    private static ProductDTO product(String id, String name) {
+        return ProductDTO.builder().id(id).name(name).category("hogar").build();
+    }
+
+    private static List<String> ids(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getId).toList();
+    }
+}
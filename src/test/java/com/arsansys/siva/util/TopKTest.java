@@ -0,0 +1,54 @@
+package com.arsansys.siva.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+    @Test
+    void evictsTheLeastFrequentKeyWhenFull() {
+        TopK topK = new TopK(2);
+        topK.offer("a", 5);
+        topK.offer("b", 3);
+
+        topK.offer("c", 4);
+
+        assertThat(topK.top(10)).containsExactly(Map.entry("a", 5), Map.entry("c", 4));
+    }
+
+    @Test
+    void ignoresKeysNotMoreFrequentThanTheMinimum() {
+        TopK topK = new TopK(2);
+        topK.offer("a", 5);
+        topK.offer("b", 3);
+
+        topK.offer("c", 3);
+
+        assertThat(topK.top(10)).containsExactly(Map.entry("a", 5), Map.entry("b", 3));
+    }
+
+    @Test
+    void updatesTheCountOfAKeyAlreadyPresent() {
+        TopK topK = new TopK(2);
+        topK.offer("a", 5);
+        topK.offer("b", 3);
+
+        topK.offer("b", 7);
+        topK.offer("c", 6);
+
+        assertThat(topK.top(10)).containsExactly(Map.entry("b", 7), Map.entry("c", 6));
+    }
+
+    @Test
+    void agingHalvesCountsAndDropsKeysThatReachZero() {
+        TopK topK = new TopK(3);
+        topK.offer("a", 8);
+        topK.offer("b", 1);
+
+        topK.age();
+
+        assertThat(topK.top(10)).containsExactly(Map.entry("a", 4));
+    }
+}